@@ -0,0 +1,41 @@
+package carrotfantasy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cold decode of every sheet a level needs, as the loading screen does it, with one to eight workers.
+// Each call starts from an empty flyweight pool and SpriteSheetCache, so this is the image part of a cold level start.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dcarrotfantasy.textureCache=off"})
+public class AssetPreloadBenchmark {
+	@Param({"0", "2"})
+	int mode;
+
+	@Param({"1", "2", "4", "8"})
+	int threads;
+
+	private List<String> sheets;
+
+	@Setup
+	public void setUp() {
+		sheets = AssetPreloader.manifest(LevelLoader.get(mode));
+	}
+
+	@Setup(org.openjdk.jmh.annotations.Level.Invocation)
+	public void evict() {
+		ImageFlyweightFactory.clearPool();
+		SpriteSheetCache.clear();
+	}
+
+	@Benchmark
+	public int loadSheets() {
+		AssetPreloader.loadSheets(sheets, threads);
+		return SpriteSheetCache.getSheetCount();
+	}
+}
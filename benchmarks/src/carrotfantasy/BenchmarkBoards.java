@@ -0,0 +1,39 @@
+package carrotfantasy;
+
+// Builds simulations in a steady mid-wave state for the benchmarks: monsters spread along the route, towers on the best cells
+class BenchmarkBoards {
+	// Monsters never die during a measurement
+	static final int IMMORTAL_HP = Integer.MAX_VALUE / 2;
+
+	// Exactly `monsters` spawned at the start of the route, in slots 0 to monsters - 1
+	static GameSimulation newSimulation(int mode, int monsters) {
+		GameSimulation sim = new GameSimulation(mode, monsters);
+		for(int i = 0; i < monsters; i++) {
+			sim.spawnMonster();
+		}
+		return sim;
+	}
+
+	static GameSimulation spreadAlongRoute(int mode, int monsters) {
+		GameSimulation sim = newSimulation(mode, monsters);
+		MonsterPath route = MapLayout.route(mode);
+		MonsterStore m = sim.getMonsterStore();
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			route.place(m, i, route.length * i / sim.getMonsterLimit());
+			m.hp[i] = IMMORTAL_HP;
+		}
+		sim.getGrid().rebuild(m);
+		return sim;
+	}
+
+	// Level 1 bottles on the cells with the most route coverage; above the number of free cells they double up
+	static TBottleModel[] bottles(int mode, int towers) {
+		int[] cells = SimulationRunner.rankCells(mode);
+		TBottleModel[] bottles = new TBottleModel[towers];
+		for(int i = 0; i < towers; i++) {
+			int cell = cells[i % cells.length];
+			bottles[i] = new TBottleModel(MapLayout.cellX(cell), MapLayout.cellY(cell));
+		}
+		return bottles;
+	}
+}
@@ -0,0 +1,36 @@
+package carrotfantasy;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar. Takes the usual JMH options, but unless -rf/-rff are given it
+// writes JSON to benchmarks/results/jmh-<timestamp>.json so runs from different commits can be compared.
+public class BenchmarkMain {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cli = new CommandLineOptions(args);
+		if(cli.shouldHelp()) {
+			cli.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+		if(!cli.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if(!cli.getResult().hasValue()) {
+			new java.io.File("benchmarks/results").mkdirs();
+			options.result("benchmarks/results/jmh-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+		}
+		Runner runner = new Runner(options.build());
+		if(cli.shouldList()) {
+			runner.list();
+			return;
+		}
+		runner.run();
+	}
+}
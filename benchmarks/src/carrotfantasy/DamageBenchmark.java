@@ -0,0 +1,93 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// 72 towers firing into the DamageQueue at once. tick is the game as it runs: every tower updates and
+// queues its hits, then the simulation lands the batch. The contended group has several producer threads
+// queueing a 72 hit volley against one thread draining, the worst case for the queue itself.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DamageBenchmark {
+	static final int TOWERS = 72;
+
+	@Param({"30", "300", "3000"})
+	int monsters;
+
+	private GameSimulation sim;
+	private TowerModel[] towers;
+
+	@Setup
+	public void setUp() {
+		sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+		int[] cells = SimulationRunner.rankCells(0);
+		towers = new TowerModel[TOWERS];
+		for(int i = 0; i < TOWERS; i++) {
+			int cell = cells[i % cells.length];
+			int x = MapLayout.cellX(cell), y = MapLayout.cellY(cell);
+			towers[i] = i % 2 == 0 ? new TBottleModel(x, y) : new TSunFlowerModel(x, y);
+		}
+	}
+
+	@Setup(org.openjdk.jmh.annotations.Level.Iteration)
+	public void heal() {
+		MonsterStore m = sim.getMonsterStore();
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			m.hp[i] = BenchmarkBoards.IMMORTAL_HP;
+		}
+	}
+
+	@Benchmark
+	public int tick() {
+		for(TowerModel tower : towers) {
+			tower.update(sim, GameLoop.TICK_MILLIS);
+		}
+		return sim.applyHits();
+	}
+
+	@State(Scope.Group)
+	public static class Shared {
+		// Takes the same values as the outer monsters
+		@Param({"30", "300", "3000"})
+		int monsters;
+
+		GameSimulation sim;
+
+		@Setup
+		public void setUp() {
+			sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+			MonsterStore m = sim.getMonsterStore();
+			for(int i = 0; i < sim.getMonsterLimit(); i++) {
+				m.hp[i] = Integer.MAX_VALUE;
+			}
+		}
+	}
+
+	// One volley: a hit from each of the 72 towers, spread over the board. A full ring counts as a
+	// rejected offer rather than spilling, so a slow consumer cannot grow the heap during the run.
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(3)
+	public void fire(Shared shared, Blackhole bh) {
+		DamageQueue hits = shared.sim.getHits();
+		MonsterStore m = shared.sim.getMonsterStore();
+		int n = shared.sim.getMonsterLimit();
+		for(int t = 0; t < TOWERS; t++) {
+			int slot = t * 7 % n;
+			bh.consume(hits.offer(slot, m.generations[slot], 1));
+		}
+	}
+
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(1)
+	public int land(Shared shared) {
+		return shared.sim.applyHits();
+	}
+}
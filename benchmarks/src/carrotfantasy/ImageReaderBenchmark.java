@@ -0,0 +1,40 @@
+package carrotfantasy;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.ImageIcon;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cutting an icon out of an already decoded sheet, and the free rotation TBottle used to do per tick
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dcarrotfantasy.textureCache=off"})
+public class ImageReaderBenchmark {
+	private static final String SHEET = "Images/Towers\\TBottle-hd.png";
+
+	private ImageReader reader;
+	private BufferedImage sprite;
+	private double degrees;
+
+	@Setup
+	public void setUp() throws Exception {
+		reader = new ImageReader();
+		sprite = SpriteSheetCache.getSheet(SHEET).getSubimage(15, 462, 56, 26);
+	}
+
+	@Benchmark
+	public ImageIcon getImageIcon() {
+		return reader.getImageIcon(SHEET, 15, 462, 56, 26, 1, false);
+	}
+
+	@Benchmark
+	public BufferedImage rotate() {
+		degrees = (degrees + 7) % 360;
+		return reader.rotate(sprite, degrees);
+	}
+}
@@ -0,0 +1,164 @@
+package carrotfantasy;
+
+import java.awt.Font;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JLabel;
+
+import org.openjdk.jmh.annotations.*;
+
+// One tick of movement, damage and liveness checks over a board of walking monsters, once through
+// MonsterStore's parallel arrays and once through one JLabel subclass per monster, as Monster was laid out
+// when the game drew each monster as its own label. Every label drags in a Swing component's fields and
+// the objects its constructor allocates, so consecutive monsters end up far apart on the heap.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MonsterLayoutBenchmark {
+	// A tower in the middle of the board hurting everything in range
+	private static final int TOWER_X = 480, TOWER_Y = 360, RANGE = 200, DAMAGE = 1;
+
+	@Param({"30", "1000", "10000"})
+	int monsters;
+
+	private double step;
+	private MonsterPath route;
+	private MonsterStore store;
+	private ObjectRoute objectRoute;
+	private LabelMonster[] labels;
+
+	@Setup
+	public void setUp() {
+		Level level = LevelLoader.get(0);
+		route = level.route;
+		step = GameLoop.TICK_MILLIS * level.speed;
+		store = new MonsterStore(0, monsters);
+		objectRoute = new ObjectRoute(route.getPoints());
+		labels = new LabelMonster[monsters];
+		for(int i = 0; i < monsters; i++) {
+			double distance = route.length * i / monsters;
+			int slot = store.acquire();
+			store.spawn(slot, 1);
+			route.place(store, slot, distance);
+			labels[i] = new LabelMonster(level);
+			labels[i].spawn();
+			objectRoute.place(labels[i], distance);
+		}
+	}
+
+	@Benchmark
+	public int arrays() {
+		MonsterStore m = store;
+		int resolved = 0;
+		int limit = m.limit();
+		for(int i = 0; i < limit; i++) {
+			if(!m.isOnField(i)) continue;
+			boolean reached = route.advance(m, i, step);
+			int dx = m.xs[i] + MonsterGrid.CENTER_X - TOWER_X, dy = m.ys[i] + MonsterGrid.CENTER_Y - TOWER_Y;
+			if(dx * dx + dy * dy <= RANGE * RANGE) m.hp[i] -= DAMAGE;
+			if(m.hp[i] <= 0 || reached) {
+				resolved++;
+				m.spawn(i, 1);
+			}
+		}
+		return resolved;
+	}
+
+	@Benchmark
+	public int labels() {
+		LabelMonster[] m = labels;
+		int resolved = 0;
+		for(int i = 0; i < m.length; i++) {
+			if(!m[i].born || !m[i].alive || m[i].reached) continue;
+			objectRoute.advance(m[i], step);
+			int dx = m[i].xPos + MonsterGrid.CENTER_X - TOWER_X, dy = m[i].yPos + MonsterGrid.CENTER_Y - TOWER_Y;
+			if(dx * dx + dy * dy <= RANGE * RANGE) m[i].HP -= DAMAGE;
+			if(m[i].HP <= 0 || m[i].reached) {
+				resolved++;
+				m[i].spawn();
+			}
+		}
+		return resolved;
+	}
+
+	// Monster's fields as they were on its JLabel subclass, plus the route progress the walk needs
+	static final class LabelMonster extends JLabel {
+		int HP;
+		int power;
+		int money;
+		int xPos, yPos;
+		double distance;
+		int segment;
+		boolean born;
+		boolean reached;
+		boolean alive;
+		private final Level level;
+
+		LabelMonster(Level level) {
+			this.level = level;
+			setVerticalTextPosition(JLabel.TOP);
+			setHorizontalTextPosition(JLabel.CENTER);
+			setFont(new Font("Times New Roman", Font.BOLD, 15));
+			setVisible(false);
+		}
+
+		void spawn() {
+			HP = level.firstWaveHp;
+			power = level.power;
+			money = level.monsterMoney;
+			distance = 0;
+			segment = 0;
+			born = true;
+			reached = false;
+			alive = true;
+			setText("HP:" + HP);
+			setBounds(xPos, yPos, 100, 110);
+		}
+	}
+
+	// MonsterPath's walk, over LabelMonster fields
+	static final class ObjectRoute {
+		private final int[] xs, ys;
+		private final double[] starts;
+		private final double length;
+
+		ObjectRoute(int[] points) {
+			int n = points.length / 2;
+			xs = new int[n];
+			ys = new int[n];
+			starts = new double[n];
+			for(int i = 0; i < n; i++) {
+				xs[i] = points[2 * i];
+				ys[i] = points[2 * i + 1];
+				if(i > 0) starts[i] = starts[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+			}
+			length = starts[n - 1];
+		}
+
+		void advance(LabelMonster m, double step) {
+			m.distance += step;
+			if(m.distance >= length) {
+				m.distance = length;
+				m.reached = true;
+			}
+			int seg = m.segment;
+			while(seg < xs.length - 2 && starts[seg + 1] <= m.distance) {
+				seg++;
+			}
+			m.segment = seg;
+			double legLength = starts[seg + 1] - starts[seg];
+			double t = legLength == 0 ? 0 : (m.distance - starts[seg]) / legLength;
+			m.xPos = xs[seg] + (int)Math.round((xs[seg + 1] - xs[seg]) * t);
+			m.yPos = ys[seg] + (int)Math.round((ys[seg + 1] - ys[seg]) * t);
+		}
+
+		void place(LabelMonster m, double distance) {
+			m.distance = Math.max(0, Math.min(distance, length));
+			m.segment = 0;
+			advance(m, 0);
+		}
+	}
+}
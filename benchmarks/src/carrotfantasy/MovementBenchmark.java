@@ -0,0 +1,47 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// One tick of GameSimulation.move along the mode's route polyline, over every walking monster
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MovementBenchmark {
+	@Param({"0", "1", "2"})
+	int mode;
+
+	@Param({"30", "300", "3000"})
+	int monsters;
+
+	private GameSimulation sim;
+
+	@Setup
+	public void setUp() {
+		sim = BenchmarkBoards.newSimulation(mode, monsters);
+		// Stagger the monsters along the route so the loop covers positions on every segment of the path
+		int routeTicks = SimulationRunner.traceRoute(mode).size();
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			long ticks = (long)i * routeTicks / sim.getMonsterLimit();
+			for(long t = 0; t < ticks; t++) {
+				sim.move(i, GameLoop.TICK_MILLIS);
+			}
+		}
+	}
+
+	@Benchmark
+	public int moveAll() {
+		MonsterStore m = sim.getMonsterStore();
+		int sum = 0;
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			if(m.isReached(i)) sim.respawn(i);
+			sim.move(i, GameLoop.TICK_MILLIS);
+			sum += m.xs[i] + m.ys[i];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,66 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Parsing a rule, and evaluating it once per monster the way a per-tick rule check would,
+// through the named-variable API and through compiled slots
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RuleBenchmark {
+	static final String RULE = "hp > 0 AND x < 800 AND NOT reached";
+
+	@Param({"30", "300", "3000"})
+	int monsters;
+
+	private GameSimulation sim;
+	private GameRuleInterpreter interpreter;
+	private double[] context;
+	private int hpSlot, xSlot, reachedSlot;
+
+	@Setup
+	public void setUp() {
+		sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+		interpreter = new GameRuleInterpreter(RULE);
+		context = interpreter.newContext();
+		hpSlot = interpreter.slotOf("hp");
+		xSlot = interpreter.slotOf("x");
+		reachedSlot = interpreter.slotOf("reached");
+	}
+
+	@Benchmark
+	public GameExpression parse() {
+		return GameRuleParser.parse(RULE);
+	}
+
+	@Benchmark
+	public int evaluate() {
+		MonsterStore m = sim.getMonsterStore();
+		int matched = 0;
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			interpreter.setVariable("hp", m.hp[i]);
+			interpreter.setVariable("x", m.xs[i]);
+			interpreter.setVariable("reached", m.isReached(i));
+			if(interpreter.evaluate()) matched++;
+		}
+		return matched;
+	}
+
+	@Benchmark
+	public int evaluateSlots() {
+		MonsterStore m = sim.getMonsterStore();
+		int matched = 0;
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			context[hpSlot] = m.hp[i];
+			context[xSlot] = m.xs[i];
+			context[reachedSlot] = m.isReached(i) ? 1 : 0;
+			if(interpreter.evaluate(context)) matched++;
+		}
+		return matched;
+	}
+}
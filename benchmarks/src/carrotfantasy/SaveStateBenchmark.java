@@ -0,0 +1,51 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Serializing a whole board through SaveGameStateVisitor
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SaveStateBenchmark {
+	@Param({"30", "300", "3000"})
+	int monsters;
+
+	@Param({"1", "12", "72"})
+	int towers;
+
+	private GameSimulation sim;
+	private Tower[] towerViews;
+	private Carrot carrot;
+
+	@Setup
+	public void setUp() {
+		sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+		int[] cells = SimulationRunner.rankCells(0);
+		towerViews = new Tower[towers];
+		for(int i = 0; i < towers; i++) {
+			int cell = cells[i % cells.length];
+			int x = MapLayout.cellX(cell), y = MapLayout.cellY(cell);
+			towerViews[i] = i % 2 == 0 ? new TBottle(x, y) : new TSunFlower(x, y);
+		}
+		carrot = new Carrot(805, 60, 20, sim.getCarrot());
+	}
+
+	@Benchmark
+	public String save() {
+		SaveGameStateVisitor visitor = new SaveGameStateVisitor();
+		for(Tower tower : towerViews) {
+			tower.accept(visitor);
+		}
+		Monster[] m = sim.getMonsters();
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			m[i].accept(visitor);
+		}
+		carrot.accept(visitor);
+		return visitor.getGameStateData();
+	}
+}
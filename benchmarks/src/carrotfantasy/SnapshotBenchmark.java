@@ -0,0 +1,50 @@
+package carrotfantasy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Binary snapshot save and load of a full board through GameSnapshot
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SnapshotBenchmark {
+	@Param({"30", "300"})
+	int monsters;
+
+	@Param({"12", "72"})
+	int towers;
+
+	private GameSimulation sim;
+	private Path file;
+
+	@Setup
+	public void setUp() throws Exception {
+		sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+		for(TBottleModel bottle : BenchmarkBoards.bottles(0, towers)) {
+			sim.addTower(bottle);
+		}
+		file = Files.createTempFile("snapshot", ".bin");
+		GameSnapshot.save(sim, file);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void save() throws Exception {
+		GameSnapshot.save(sim, file);
+	}
+
+	@Benchmark
+	public GameSimulation load() throws Exception {
+		return GameSnapshot.load(file);
+	}
+}
@@ -0,0 +1,60 @@
+package carrotfantasy;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.ImageIcon;
+
+import org.openjdk.jmh.annotations.*;
+
+// Painting one tower or monster sprite onto an opaque board-sized buffer, as GameCanvas does every frame.
+// "toolkit" is the icon the old getScaledInstance path produced, "prescaled" the one ImageReader makes now.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dcarrotfantasy.textureCache=off"})
+public class SpriteDrawBenchmark {
+	@Param({"tower", "monster"})
+	String sprite;
+
+	@Param({"toolkit", "prescaled"})
+	String scaling;
+
+	private BufferedImage board;
+	private Graphics2D g;
+	private Image image;
+	private int x;
+
+	@Setup
+	public void setUp() throws Exception {
+		Sprite s = sprite.equals("tower")
+				? new Sprite("Images/Towers\\TBottle-hd.png", 2, 264, 60, 60, 1, false, 0, 0, 0, 0)
+				: LevelLoader.get(0).monsterFrames[0];
+		ImageReader reader = new ImageReader();
+		BufferedImage slice = SpriteSheetCache.getSheet(s.sheet).getSubimage(s.x, s.y, s.width, s.height);
+		if(s.rotate) slice = reader.rotate(slice, -90.0);
+		if(scaling.equals("toolkit")) {
+			ImageIcon icon = new ImageIcon(slice);
+			image = new ImageIcon(icon.getImage().getScaledInstance((int)(icon.getIconWidth() * s.scale), (int)(icon.getIconHeight() * s.scale), Image.SCALE_FAST)).getImage();
+		} else {
+			image = ImageReader.prescale(slice, s.scale);
+		}
+		board = ImageReader.compatibleImage(960, 640, java.awt.Transparency.OPAQUE);
+		g = board.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		g.dispose();
+	}
+
+	@Benchmark
+	public boolean draw() {
+		x = (x + 37) % 880;
+		return g.drawImage(image, x, 200, null);
+	}
+}
@@ -0,0 +1,51 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// TBottle's grid scan, aim and rotated sprite lookup for every tower against a board full of monsters
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TargetingBenchmark {
+	@Param({"30", "300", "3000"})
+	int monsters;
+
+	@Param({"1", "12", "72"})
+	int towers;
+
+	private GameSimulation sim;
+	private TBottleModel[] bottles;
+	private RotatedSpriteTable table;
+
+	@Setup
+	public void setUp() {
+		sim = BenchmarkBoards.spreadAlongRoute(0, monsters);
+		bottles = BenchmarkBoards.bottles(0, towers);
+		table = new RotatedSpriteTable("Images/Towers\\TBottle-hd.png", 15, 462, 56, 26, 1, 0);
+	}
+
+	// Shots keep landing, so top the monsters back up between iterations
+	@Setup(org.openjdk.jmh.annotations.Level.Iteration)
+	public void heal() {
+		MonsterStore m = sim.getMonsterStore();
+		for(int i = 0; i < sim.getMonsterLimit(); i++) {
+			m.hp[i] = BenchmarkBoards.IMMORTAL_HP;
+		}
+	}
+
+	@Benchmark
+	public void scanAndAim(Blackhole bh) {
+		for(TBottleModel bottle : bottles) {
+			bottle.update(sim, GameLoop.TICK_MILLIS);
+			bh.consume(table.get(bottle.getAim()));
+		}
+		// Land the round's shots as a tick would, so the hit queue never spills into its overflow
+		bh.consume(sim.applyHits());
+	}
+}
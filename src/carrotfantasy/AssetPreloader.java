@@ -0,0 +1,123 @@
+package carrotfantasy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Gets a level's images ready before the board appears. Every sprite sheet the level needs is decoded into
+// ImageFlyweightFactory's pool by a small pool of workers, largest file first, then the classes that slice
+// their icons in static fields are initialized, also in parallel, and last the level's theme cuts its own.
+// By the time GamePanel and the game classes ask for an icon its sheet is in memory, so the rest of the
+// start is slicing only.
+final class AssetPreloader {
+	interface Progress {
+		// Called on the thread that runs preload, once per finished step
+		void loaded(int done, int total);
+	}
+
+	// Sheets every level draws from: HUD digits, shop and tower menus, towers, carrot and the end screens
+	private static final String[] SHARED_SHEETS = {
+		"Images/Items\\Items00-hd.png", "Images/Items\\Items01-hd.png", "Images/Items\\Items02-hd.png",
+		"Images/Items\\numwhite-hd.png", "Images/Items\\numyellow-hd.png",
+		"Images/Towers\\TBottle-hd.png", "Images/Towers\\TSun-hd.png",
+		"Images/scene\\gamemenu-hd.png", "Images/scene\\gameover-hd.png", "Images/scene\\gameover0-hd.png",
+	};
+	// Classes whose static fields cut icons out of those sheets. None of them touches another's statics
+	// while initializing, so they can be initialized on different threads without waiting on each other.
+	private static final Class<?>[] ICON_CLASSES = {
+		WhiteNum.class, YellowNum.class, MonsterThread.class, TBottle.class, TSunFlower.class,
+	};
+
+	private AssetPreloader() {}
+
+	// The sheets a game on this level needs, the level's own after the shared ones
+	static List<String> manifest(Level level) {
+		Set<String> sheets = new LinkedHashSet<>();
+		for(String sheet : SHARED_SHEETS) {
+			sheets.add(sheet);
+		}
+		sheets.addAll(level.sheets());
+		return new ArrayList<>(sheets);
+	}
+
+	// One worker per core, but never more than there is work for
+	static int defaultThreads(int tasks) {
+		return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), tasks));
+	}
+
+	// Decodes the level's sheets and initializes the icon classes, reporting each finished step
+	static void preload(Level level, Progress progress) {
+		List<String> sheets = manifest(level);
+		int total = sheets.size() + ICON_CLASSES.length + 1;
+		ExecutorService pool = newPool(defaultThreads(sheets.size()));
+		try {
+			ExecutorCompletionService<Object> done = new ExecutorCompletionService<>(pool);
+			submitSheets(done, sheets);
+			int n = await(done, sheets.size(), 0, total, progress);
+			// Only once every sheet is in, so no worker sits blocked on a decode another one is running
+			for(Class<?> c : ICON_CLASSES) {
+				done.submit(() -> Class.forName(c.getName(), true, c.getClassLoader()));
+			}
+			n = await(done, ICON_CLASSES.length, n, total, progress);
+			// Then the theme's own icons, so placing or upgrading a sunflower cuts nothing
+			done.submit(() -> ThemeAssets.of(level).getSunFlowerUpgrades());
+			await(done, 1, n, total, progress);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// Decodes the sheets with the given number of workers; AssetPreloadBenchmark times this on a cold cache
+	static void loadSheets(List<String> sheets, int threads) {
+		ExecutorService pool = newPool(threads);
+		try {
+			ExecutorCompletionService<Object> done = new ExecutorCompletionService<>(pool);
+			submitSheets(done, sheets);
+			await(done, sheets.size(), 0, sheets.size(), null);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// The biggest files first, so a large sheet started last does not leave the other workers idle at the end
+	private static void submitSheets(ExecutorCompletionService<Object> done, List<String> sheets) {
+		List<String> sorted = new ArrayList<>(sheets);
+		sorted.sort(Comparator.comparingLong((String sheet) -> ImageReader.getImageFile(sheet).length()).reversed());
+		for(String sheet : sorted) {
+			// A warm sheet's slices are read into TextureCache's memory instead; the sheet is only decoded if
+			// one turns out to be missing
+			done.submit(() -> TextureCache.isWarm(sheet) ? TextureCache.load(sheet) : ImageFlyweightFactory.getFlyweight(sheet));
+		}
+	}
+
+	// A failed step is reported and counted as done; whoever needs that image later gets the error again
+	private static int await(ExecutorCompletionService<Object> done, int tasks, int n, int total, Progress progress) {
+		for(int i = 0; i < tasks; i++) {
+			try {
+				done.take().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return n;
+			} catch (ExecutionException e) {
+				System.err.println("Preloading failed: " + e.getCause());
+			}
+			n++;
+			if(progress != null) progress.loaded(n, total);
+		}
+		return n;
+	}
+
+	private static ExecutorService newPool(int threads) {
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "asset-preload");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+}
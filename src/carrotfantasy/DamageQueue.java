@@ -0,0 +1,95 @@
+package carrotfantasy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Hits from any number of towers on any threads, drained by the simulation tick on a single thread.
+// A bounded ring with a sequence number per cell (Vyukov's MPSC design): a producer claims a cell with
+// one CAS on the tail and publishes it by bumping the cell's sequence, so nothing ever blocks and a hit
+// is seen by the consumer exactly once. A hit is the target's slot, the slot's generation when it was
+// aimed at, and the damage.
+final class DamageQueue {
+	interface Sink {
+		void hit(int slot, int generation, int damage);
+	}
+
+	private final int mask;
+	private final AtomicLongArray sequence;
+	private final int[] slots, generations, damages;
+	private final AtomicLong tail = new AtomicLong();
+	// Only the consumer moves head
+	private long head;
+	// add() spills here when the ring is full, so a burst never loses a hit
+	private final ConcurrentLinkedQueue<int[]> overflow = new ConcurrentLinkedQueue<>();
+	private final AtomicLong overflowed = new AtomicLong();
+
+	DamageQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		mask = size - 1;
+		sequence = new AtomicLongArray(size);
+		for(int i = 0; i < size; i++) {
+			sequence.set(i, i);
+		}
+		slots = new int[size];
+		generations = new int[size];
+		damages = new int[size];
+	}
+
+	// Queues a hit unless the ring is full; safe from any thread
+	boolean offer(int slot, int generation, int damage) {
+		while(true) {
+			long t = tail.get();
+			int cell = (int)t & mask;
+			long seq = sequence.get(cell);
+			if(seq == t) {
+				if(!tail.compareAndSet(t, t + 1)) continue;
+				slots[cell] = slot;
+				generations[cell] = generation;
+				damages[cell] = damage;
+				// Publishes the three writes above to the consumer
+				sequence.set(cell, t + 1);
+				return true;
+			}
+			// The consumer has not freed this cell from the previous lap yet
+			if(seq < t) return false;
+		}
+	}
+
+	// Queues a hit, spilling to an unbounded list if the ring is full; safe from any thread
+	void add(int slot, int generation, int damage) {
+		if(offer(slot, generation, damage)) return;
+		overflow.add(new int[] {slot, generation, damage});
+		overflowed.incrementAndGet();
+	}
+
+	// Hands every hit published so far to the sink, oldest first; consumer thread only
+	int drain(Sink sink) {
+		int n = 0;
+		while(true) {
+			int cell = (int)head & mask;
+			if(sequence.get(cell) != head + 1) break;
+			int slot = slots[cell], generation = generations[cell], damage = damages[cell];
+			// Frees the cell for the producers' next lap
+			sequence.set(cell, head + mask + 1);
+			head++;
+			sink.hit(slot, generation, damage);
+			n++;
+		}
+		int[] spilled;
+		while((spilled = overflow.poll()) != null) {
+			sink.hit(spilled[0], spilled[1], spilled[2]);
+			n++;
+		}
+		return n;
+	}
+
+	int capacity() {
+		return mask + 1;
+	}
+
+	// Hits that did not fit in the ring since the queue was made
+	long getOverflowed() {
+		return overflowed.get();
+	}
+}
@@ -0,0 +1,70 @@
+package carrotfantasy;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The player's gold, the one balance every part of the game reads and changes. Kills credit it on the game
+// loop thread while the shop buttons spend it on the event thread, so each change is a single atomic step:
+// a purchase goes through only if the balance covers it at the instant it is taken, and a credit landing at
+// the same time is never lost or counted twice.
+final class Economy {
+	interface Listener {
+		// Runs on whichever thread made the change. Changes from two threads can be reported out of order,
+		// so a listener that cares about the latest balance should read get() rather than keep the argument.
+		void moneyChanged(int money);
+	}
+
+	private final AtomicInteger balance;
+	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	Economy(int money) {
+		balance = new AtomicInteger(money);
+	}
+
+	int get() {
+		return balance.get();
+	}
+
+	void credit(int amount) {
+		if(amount < 0) throw new IllegalArgumentException("credit of " + amount);
+		if(amount == 0) return;
+		changed(balance.addAndGet(amount));
+	}
+
+	// Takes amount off the balance if it can be afforded right now; false leaves the balance untouched
+	boolean debit(int amount) {
+		if(amount < 0) throw new IllegalArgumentException("debit of " + amount);
+		while(true) {
+			int money = balance.get();
+			if(money < amount) return false;
+			if(balance.compareAndSet(money, money - amount)) {
+				changed(money - amount);
+				return true;
+			}
+		}
+	}
+
+	boolean canAfford(int amount) {
+		return balance.get() >= amount;
+	}
+
+	// Replaces the balance outright; for snapshot restore and new games, not for spending
+	void set(int money) {
+		balance.set(money);
+		changed(money);
+	}
+
+	void addListener(Listener l) {
+		listeners.add(l);
+	}
+
+	void removeListener(Listener l) {
+		listeners.remove(l);
+	}
+
+	private void changed(int money) {
+		for(Listener l : listeners) {
+			l.moneyChanged(money);
+		}
+	}
+}
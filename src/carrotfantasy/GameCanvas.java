@@ -0,0 +1,191 @@
+package carrotfantasy;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.Timer;
+
+// The board in one custom-painted component: scenery, carrot, towers, monsters, bullets and the HUD are
+// drawn from the latest RenderSnapshot in a single pass per frame. The cell buttons, menus and popups stay
+// ordinary Swing components on the layers above it.
+class GameCanvas extends JComponent {
+	static final int FRAME_MILLIS = 16;
+	// -Dcarrotfantasy.frameStats=true draws the frame time overlay in the corner of the board
+	private static final boolean SHOW_STATS = Boolean.getBoolean("carrotfantasy.frameStats");
+	private static final Font LABEL_FONT = new Font("Times New Roman", Font.BOLD, 15);
+	private BufferedImage scenery;
+	private volatile RenderSnapshot latest;
+	private RenderSnapshot painted;
+	private final FrameStats stats = new FrameStats();
+	private final HudCounter currentWave = new HudCounter(YellowNum.nums, 2, 44);
+	private final HudCounter waves = new HudCounter(WhiteNum.nums, 2, 20);
+	private final HudCounter money = new HudCounter(WhiteNum.nums, 4, 20);
+	private final Timer timer;
+	// Runs on the event thread at the start of every frame, before the repaint check
+	private Runnable frameTask;
+
+	GameCanvas() {
+		this.setBounds(0, 0, 960, 640);
+		this.setOpaque(true);
+		this.setDoubleBuffered(true);
+		// Only repaints when the loop has published something new, so a paused board costs nothing
+		timer = new Timer(FRAME_MILLIS, e -> {
+			Runnable task = frameTask;
+			if(task != null) task.run();
+			if(latest != painted) repaint();
+		});
+		timer.setCoalesce(true);
+	}
+
+	// Flattens the labels that never move into one board-sized image, in the order given
+	static BufferedImage composeScenery(JLabel... layers) {
+		BufferedImage scenery = new BufferedImage(960, 640, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = scenery.createGraphics();
+		for(JLabel layer : layers) {
+			if(layer == null || !layer.isVisible() || layer.getIcon() == null) continue;
+			Graphics lg = g.create(layer.getX(), layer.getY(), layer.getWidth(), layer.getHeight());
+			layer.paint(lg);
+			lg.dispose();
+		}
+		g.dispose();
+		return scenery;
+	}
+
+	void setScenery(BufferedImage image) {
+		scenery = image;
+		repaint();
+	}
+
+	// Called from the game loop thread once per tick
+	void publish(RenderSnapshot snapshot) {
+		latest = snapshot;
+	}
+
+	// For Swing updates that should happen at most once a frame however often their cause fires
+	void setFrameTask(Runnable task) {
+		frameTask = task;
+	}
+
+	void start() {
+		timer.start();
+	}
+
+	void stop() {
+		timer.stop();
+	}
+
+	FrameStats getFrameStats() {
+		return stats;
+	}
+
+	@Override
+	protected void paintComponent(Graphics graphics) {
+		long start = System.nanoTime();
+		RenderSnapshot frame = latest;
+		painted = frame;
+		Graphics2D g = (Graphics2D)graphics;
+		if(scenery != null) {
+			g.drawImage(scenery, 0, 0, null);
+		}else {
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, getWidth(), getHeight());
+		}
+		if(frame != null) {
+			for(int i = 0; i < frame.spriteCount; i++) {
+				g.drawImage(frame.images[i], frame.xs[i], frame.ys[i], this);
+			}
+			if(frame.labelCount > 0) {
+				g.setFont(LABEL_FONT);
+				g.setColor(Color.BLACK);
+				FontMetrics fm = g.getFontMetrics();
+				for(int i = 0; i < frame.labelCount; i++) {
+					g.drawString(frame.labels[i], frame.labelXs[i] - fm.stringWidth(frame.labels[i]) / 2, frame.labelYs[i] - fm.getDescent());
+				}
+			}
+			paintHud(g, frame);
+			if(frame.banner != null) {
+				g.drawImage(frame.banner, (getWidth() - frame.banner.getWidth(null)) / 2, (getHeight() - frame.banner.getHeight(null)) / 2, this);
+			}
+		}
+		stats.record(start, System.nanoTime());
+		if(SHOW_STATS) {
+			g.setFont(LABEL_FONT);
+			g.setColor(Color.WHITE);
+			g.drawString(stats.toString(), 10, getHeight() - 10);
+		}
+	}
+
+	// Wave counter and money in the top bar, at the spots the digit labels used to occupy
+	private void paintHud(Graphics2D g, RenderSnapshot frame) {
+		currentWave.set(frame.currentWave);
+		waves.set(frame.wave);
+		money.set(frame.money);
+		g.drawImage(currentWave.getImage(), 365, 10, this);
+		g.drawImage(waves.getImage(), 480, 10, this);
+		g.drawImage(money.getImage(), 100, 10, this);
+	}
+}
+
+// Paint time per frame: the last one, the running average, the worst since the last reset,
+// and the frame rate actually achieved over the most recent second
+final class FrameStats {
+	private long frames;
+	private long lastNanos, totalNanos, worstNanos;
+	private long windowStart;
+	private int windowFrames;
+	private double fps;
+
+	synchronized void record(long startNanos, long endNanos) {
+		lastNanos = endNanos - startNanos;
+		totalNanos += lastNanos;
+		if(lastNanos > worstNanos) worstNanos = lastNanos;
+		frames++;
+		windowFrames++;
+		if(windowStart == 0) windowStart = startNanos;
+		long window = endNanos - windowStart;
+		if(window >= 1000000000L) {
+			fps = windowFrames * 1e9 / window;
+			windowFrames = 0;
+			windowStart = endNanos;
+		}
+	}
+
+	synchronized long getFrames() {
+		return frames;
+	}
+
+	synchronized double getLastMillis() {
+		return lastNanos / 1e6;
+	}
+
+	synchronized double getAverageMillis() {
+		return frames == 0 ? 0 : totalNanos / 1e6 / frames;
+	}
+
+	synchronized double getWorstMillis() {
+		return worstNanos / 1e6;
+	}
+
+	synchronized double getFps() {
+		return fps;
+	}
+
+	synchronized void reset() {
+		frames = 0;
+		lastNanos = totalNanos = worstNanos = 0;
+		windowStart = 0;
+		windowFrames = 0;
+		fps = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d frames, %.0f fps, frame %.2f ms (avg %.2f ms, worst %.2f ms)", frames, fps, getLastMillis(), getAverageMillis(),
+								getWorstMillis());
+	}
+}
@@ -7,7 +7,7 @@ public abstract class GameEntityFactory {
     public abstract Monster createMonster(int mode, int currentWave);
 
     // Factory method for creating towers
-    public abstract Tower createTower(int towerType, int x, int y, Monster[] monsters, int monsterNum, Object cell);
+    public abstract Tower createTower(int towerType, int x, int y, Object cell);
 
     // Factory method for creating game elements based on difficulty
     public abstract GameElement createGameElement(String elementType, int mode);
@@ -18,15 +18,15 @@ class EasyModeFactory extends GameEntityFactory {
 
     @Override
     public Monster createMonster(int mode, int currentWave) {
-        return new Monster(0);
+        return Monster.create(0);
     }
 
     @Override
-    public Tower createTower(int towerType, int x, int y, Monster[] monsters, int monsterNum, Object cell) {
+    public Tower createTower(int towerType, int x, int y, Object cell) {
         if (towerType == 1) {
-            return new TBottle(x, y, monsters, monsters.length - 10, (javax.swing.JButton) cell);
+            return new TBottle(x, y);
         } else if (towerType == 2) {
-            return new TSunFlower(x, y, monsters, monsters.length - 10);
+            return new TSunFlower(x, y);
         }
         return null;
     }
@@ -49,15 +49,15 @@ class MediumModeFactory extends GameEntityFactory {
 
     @Override
     public Monster createMonster(int mode, int currentWave) {
-        return new Monster(1);
+        return Monster.create(1);
     }
 
     @Override
-    public Tower createTower(int towerType, int x, int y, Monster[] monsters, int monsterNum, Object cell) {
+    public Tower createTower(int towerType, int x, int y, Object cell) {
         if (towerType == 1) {
-            return new TBottle(x, y, monsters, monsters.length - 5, (javax.swing.JButton) cell);
+            return new TBottle(x, y);
         } else if (towerType == 2) {
-            return new TSunFlower(x, y, monsters, monsters.length - 5);
+            return new TSunFlower(x, y);
         }
         return null;
     }
@@ -80,15 +80,15 @@ class HardModeFactory extends GameEntityFactory {
 
     @Override
     public Monster createMonster(int mode, int currentWave) {
-        return new Monster(2);
+        return Monster.create(2);
     }
 
     @Override
-    public Tower createTower(int towerType, int x, int y, Monster[] monsters, int monsterNum, Object cell) {
+    public Tower createTower(int towerType, int x, int y, Object cell) {
         if (towerType == 1) {
-            return new TBottle(x, y, monsters, monsters.length, (javax.swing.JButton) cell);
+            return new TBottle(x, y);
         } else if (towerType == 2) {
-            return new TSunFlower(x, y, monsters, monsters.length);
+            return new TSunFlower(x, y);
         }
         return null;
     }
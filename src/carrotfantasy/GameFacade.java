@@ -38,15 +38,16 @@ public class GameFacade {
 
     // Simplified method to create tower
     public boolean createTower(int towerType, int x, int y) {
-        if (gamePanel.getMoney() >= getTowerPrice(towerType)) {
-            Tower tower = entityFactory.createTower(towerType, x, y,
-                gamePanel.getMonsters(), gamePanel.getMonsterCount(), gamePanel.getCell(x, y));
+        int price = getTowerPrice(towerType);
+        // Pay first so the check and the payment are one step; refund if no tower comes of it
+        if (gamePanel.deductMoney(price)) {
+            Tower tower = entityFactory.createTower(towerType, x, y, gamePanel.getCell(x, y));
             if (tower != null) {
                 gamePanel.addTower(tower, x, y);
-                gamePanel.deductMoney(tower.getPrice());
                 musicModule.play("towerBuild");
                 return true;
             }
+            gamePanel.addMoney(price);
         }
         return false;
     }
@@ -54,9 +55,9 @@ public class GameFacade {
     // Simplified method to upgrade tower
     public boolean upgradeTower(int x, int y) {
         Tower tower = gamePanel.getTower(x, y);
-        if (tower != null && gamePanel.getMoney() >= tower.getUpgradePrice()) {
-            tower.upgrade();
-            gamePanel.deductMoney(tower.getUpgradePrice());
+        int price = tower == null ? 0 : tower.getUpgradePrice();
+        if (tower != null && gamePanel.deductMoney(price)) {
+            gamePanel.getSimulation().upgradeTower(tower.getModel(), price);
             musicModule.play("towerUpgrade");
             return true;
         }
@@ -67,8 +68,7 @@ public class GameFacade {
     public void sellTower(int x, int y) {
         Tower tower = gamePanel.getTower(x, y);
         if (tower != null) {
-            int sellPrice = (int)(tower.getPrice() * 0.8);
-            gamePanel.addMoney(sellPrice);
+            // The simulation refunds the sale once the tower has left the board
             gamePanel.removeTower(x, y);
             musicModule.play("towerSell");
         }
@@ -99,14 +99,10 @@ public class GameFacade {
         musicModule.play("select");
     }
 
-    // Simplified method to handle monster damage
+    // Queued like a tower's shot, so the next simulation step credits the kill and frees the slot
     public void damageMonster(Monster monster, int damage) {
-        monster.HP -= damage;
-        if (monster.HP <= 0) {
-            monster.alive = false;
-            monster.setVisible(false);
-            gamePanel.addMoney(monster.money);
-        }
+        int slot = monster.getIndex();
+        gamePanel.getSimulation().hit(slot, monster.getStore().generations[slot], damage);
     }
 
     // Simplified method to check game over
@@ -142,17 +138,15 @@ public class GameFacade {
 
     private void startMonsterThread() {
         monsterThread = new MonsterThread(
-            gamePanel.getMonsters(),
-            gamePanel.getMode(),
-            gamePanel.getWaveNums(),
-            gamePanel.getMoneyNums(),
+            gamePanel.getSimulation(),
+            gamePanel.getMonsterViews(),
+            gamePanel.getCanvas(),
             gamePanel.getBottleButton(),
             gamePanel.getSunFlowerButton(),
             gamePanel.getCarrot(),
             gamePanel.getGameOverPanel(),
             gamePanel.getTowers(),
-            gamePanel.getUpgradeButton(),
-            gamePanel.getCountDownLabel()
+            gamePanel.getUpgradeButton()
         );
         monsterThread.start();
     }
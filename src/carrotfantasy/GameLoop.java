@@ -0,0 +1,123 @@
+package carrotfantasy;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// Anything the game loop advances once per simulation tick
+interface Updatable {
+	// Returns false once the component is finished and should be dropped from the loop
+	boolean update(long deltaTime);
+}
+
+// Single fixed-timestep scheduler that drives the wave loop, towers, bullets and the carrot.
+// One daemon thread for the whole process instead of one sleeping thread per entity;
+// it parks on the shared PauseGate while the game is paused.
+class GameLoop implements Runnable {
+	static final long TICK_MILLIS = 20;
+	private static final long TICK_NANOS = TICK_MILLIS * 1000000L;
+	// Ticks we are willing to replay after a stall before dropping the backlog
+	private static final int MAX_CATCH_UP = 5;
+	private static final GameLoop instance = new GameLoop();
+
+	private final ConcurrentLinkedQueue<Updatable> pending;
+	private final ArrayList<Updatable> components;
+	private final PauseGate pauseGate;
+	private volatile Thread thread;
+	private volatile long tickCount;
+	private volatile long maxLateNanos;
+
+	private GameLoop() {
+		pending = new ConcurrentLinkedQueue<>();
+		components = new ArrayList<>();
+		pauseGate = new PauseGate();
+	}
+
+	static GameLoop getInstance() {
+		return instance;
+	}
+
+	// Whether the caller is the loop thread, which must not block on disk
+	boolean isLoopThread() {
+		return Thread.currentThread() == thread;
+	}
+
+	void add(Updatable component) {
+		pending.add(component);
+		ensureStarted();
+	}
+
+	private synchronized void ensureStarted() {
+		if(thread == null) {
+			thread = new Thread(this, "GameLoop");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	public void run() {
+		long nextTick = System.nanoTime();
+		while(true) {
+			if(pauseGate.isPaused()) {
+				try {
+					pauseGate.awaitResume();
+				} catch (InterruptedException e) {
+					return;
+				}
+				// Paused time is not simulated, so start the schedule over
+				nextTick = System.nanoTime();
+			}
+			long now = System.nanoTime();
+			int steps = 0;
+			while(now - nextTick >= 0 && steps < MAX_CATCH_UP) {
+				long late = now - nextTick;
+				if(late > maxLateNanos) maxLateNanos = late;
+				tick();
+				nextTick += TICK_NANOS;
+				steps++;
+			}
+			if(steps == MAX_CATCH_UP) nextTick = System.nanoTime() + TICK_NANOS;
+			LockSupport.parkNanos(nextTick - System.nanoTime());
+		}
+	}
+
+	private void tick() {
+		Updatable added;
+		while((added = pending.poll()) != null) {
+			components.add(added);
+		}
+		int alive = 0;
+		for(int i = 0; i < components.size(); i++) {
+			Updatable component = components.get(i);
+			boolean keep;
+			try {
+				keep = component.update(TICK_MILLIS);
+			} catch (Exception e) {
+				e.printStackTrace();
+				keep = false;
+			}
+			if(keep) components.set(alive++, component);
+		}
+		for(int i = components.size() - 1; i >= alive; i--) {
+			components.remove(i);
+		}
+		tickCount++;
+	}
+
+	PauseGate getPauseGate() {
+		return pauseGate;
+	}
+
+	long getTickCount() {
+		return tickCount;
+	}
+
+	long getMaxLateNanos() {
+		return maxLateNanos;
+	}
+
+	// Only meaningful from the loop thread; other threads get an approximate value
+	int getComponentCount() {
+		return components.size() + pending.size();
+	}
+}
@@ -1,7 +1,7 @@
 package carrotfantasy;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // Refactored with Mediator Pattern
 public interface GameMediator {
@@ -40,9 +40,16 @@ class ConcreteGameMediator implements GameMediator {
     private List<GameComponent> components;
     private GameState gameState;
 
-    public ConcreteGameMediator() {
-        this.components = new ArrayList<>();
-        this.gameState = new GameState();
+    // Shares the game's Economy rather than keeping a balance of its own; every change to it
+    // reaches the components as MONEY_CHANGED, whoever made it
+    public ConcreteGameMediator(Economy economy) {
+        this.components = new CopyOnWriteArrayList<>();
+        this.gameState = new GameState(economy);
+        economy.addListener(money -> {
+            for (GameComponent component : components) {
+                component.receiveGameEvent(GameEvent.MONEY_CHANGED, money);
+            }
+        });
     }
 
     @Override
@@ -76,31 +83,9 @@ class ConcreteGameMediator implements GameMediator {
     }
 
     private void updateGameState(GameEvent event, Object data) {
+        // Kills, builds, upgrades and sales are paid for where they happen, so they are not
+        // booked again here
         switch (event) {
-            case MONSTER_KILLED:
-                if (data instanceof Monster) {
-                    Monster monster = (Monster) data;
-                    gameState.addMoney(monster.money);
-                }
-                break;
-            case TOWER_BUILT:
-                if (data instanceof Tower) {
-                    Tower tower = (Tower) data;
-                    gameState.deductMoney(tower.price);
-                }
-                break;
-            case TOWER_UPGRADED:
-                if (data instanceof Tower) {
-                    Tower tower = (Tower) data;
-                    gameState.deductMoney(tower.upgradePrice);
-                }
-                break;
-            case TOWER_SOLD:
-                if (data instanceof Tower) {
-                    Tower tower = (Tower) data;
-                    gameState.addMoney((int)(tower.price * 0.8));
-                }
-                break;
             case GAME_PAUSED:
                 gameState.setPaused(true);
                 break;
@@ -117,14 +102,14 @@ class ConcreteGameMediator implements GameMediator {
 
 // Game state management
 class GameState {
-    private int money;
+    private final Economy economy;
     private int currentWave;
     private boolean paused;
     private boolean gameOver;
     private boolean victory;
 
-    public GameState() {
-        this.money = 250;
+    public GameState(Economy economy) {
+        this.economy = economy;
         this.currentWave = 1;
         this.paused = false;
         this.gameOver = false;
@@ -132,11 +117,11 @@ class GameState {
     }
 
     // Getters and setters
-    public int getMoney() { return money; }
-    public void setMoney(int money) { this.money = money; }
-    public void addMoney(int amount) { this.money += amount; }
-    public void deductMoney(int amount) { this.money -= amount; }
-    public boolean canAfford(int cost) { return money >= cost; }
+    public int getMoney() { return economy.get(); }
+    public void setMoney(int money) { economy.set(money); }
+    public void addMoney(int amount) { economy.credit(amount); }
+    public boolean deductMoney(int amount) { return economy.debit(amount); }
+    public boolean canAfford(int cost) { return economy.canAfford(cost); }
 
     public int getCurrentWave() { return currentWave; }
     public void setCurrentWave(int wave) { this.currentWave = wave; }
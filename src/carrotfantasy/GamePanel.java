@@ -1,35 +1,47 @@
 package carrotfantasy;
 
 import javax.swing.*;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Image;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
 import java.util.*;
 
 public class GamePanel extends JFrame implements ActionListener, Runnable{
 	private int mode;
+	private Level level;
 	private MainMenu mainMenu;
-	private JLabel bg, path, menuBG, menuCenter, obstacle1, obstacle2, start, chosenCell, range, popupMenuBG, countDown;
-	private JLabel[] waveNums;
-	private JLabel[] moneyNums;
+	private JLabel bg, path, menuBG, menuCenter, chosenCell, range, popupMenuBG;
 	private JButton[] cells;
 	private JButton pause, bottle, sunFlower, sell, upgrade, menu, resume, restart, chooseLevel;
 	private JLayeredPane layeredPane, operatingBox;
 	private JPanel contentPane, choosingBox;
 	private Carrot carrot;
 	private ImageReader imgReader;
-	private Monster[] monsters;
+	private GameSimulation simulation;
+	private MonsterView[] monsterViews;
 	private Tower[] towers;
 	private boolean paused;
 	private int[] hasTower; 
 	private HashSet<Integer> block;
 	private ImageIcon sell_80, sell_144, sell_208, sell_256, upgrade_180, upgrade_260, upgrade_320, _upgrade_180, _upgrade_260, _upgrade_320,
-						cant_upgrade, range_150, range_200, range_210, range_280, range_360;
+						cant_upgrade, range_150, range_200, range_210, range_280, range_360, pause_off, pause_on;
 	private GameOverPanel gameOverPane;
+	private GameCanvas canvas;
+	// The level's own sheets, scenery and monster frames, released when the panel is disposed
+	private ThemeAssets theme;
 	private static MusicModule musicModule = new MusicModule();
+	// -Dcarrotfantasy.stats=true prints the load, cache, frame and bullet pool statistics
+	static final boolean PRINT_STATS = Boolean.getBoolean("carrotfantasy.stats");
+	// Wall time of the level start, and the part of it AssetPreloader took
+	private long loadMillis, preloadMillis;
 	MonsterThread monsterThread;
 	
 	public GamePanel(int m, MainMenu mm) {
 		mode = m;
+		level = LevelLoader.get(mode);
 		mainMenu = mm;
 		this.setTitle("Carrot Fantasy");
 		this.setSize(975, 640);
@@ -37,13 +49,13 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		this.setResizable(false);
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		imgReader = new ImageReader();
-		monsters = new Monster[30];
+		simulation = new GameSimulation(mode);
+		// MonsterThread adds views if the field ever holds more monsters than the first wave
+		monsterViews = new MonsterView[simulation.getWaveSize()];
 		cells = new JButton[72];
 		hasTower = new int[72];
 		paused = false;
 		towers = new Tower[72];
-		obstacle1 = new JLabel();
-		obstacle2 = new JLabel();
 		choosingBox = new JPanel();
 		pause = new JButton();
 		menu = new JButton();
@@ -52,40 +64,36 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		sell = new JButton();
 		upgrade = new JButton();
 		operatingBox = new JLayeredPane();
-		start = new JLabel();
 		chosenCell = new JLabel();
 		range = new JLabel();
-		waveNums = new JLabel[4];
-		moneyNums = new JLabel[4];
-		for(int i = 0; i < 4; i++) {
-			waveNums[i] = new JLabel();
-			moneyNums[i] = new JLabel();
-		}
 		bottle = new JButton();
 		sunFlower = new JButton();
 		resume = new JButton();
 		restart = new JButton();
 		chooseLevel = new JButton();
 		popupMenuBG = new JLabel();
-		countDown = new JLabel();
+		canvas = new GameCanvas();
 		gameOverPane = new GameOverPanel(restart, chooseLevel);
 	}
 	
 	public void run(){
+		long loadStart = System.nanoTime();
+		// Opening this level's theme releases the images of the one played before
+		theme = ThemeAssets.of(level);
 		layeredPane = this.getLayeredPane();
-		JLabel loading = new JLabel(imgReader.getImageIcon("Images/loading-hd.png", 0, 0, 960, 640, 1, false));
-		loading.setBounds(0, 0, 960, 640);
+		LoadingScreen loading = new LoadingScreen(imgReader.getImageIcon("Images/loading-hd.png", 0, 0, 960, 640, 1, false).getImage());
 		loading.setVisible(true);
 		layeredPane.add(loading, Integer.valueOf(500));
+		// Every sheet the level uses is decoded up front on a worker pool, so what follows only slices
+		long preloadStart = System.nanoTime();
+		AssetPreloader.preload(level, loading::setProgress);
+		preloadMillis = (System.nanoTime() - preloadStart) / 1000000;
 		
-		bg = getMyBackground();
-		path = getPath();
-		menuBG.setBounds(12, -1, 926, 78);
-		menuBG.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 2, 2, 926, 78, 1, false));
-		menuCenter.setBounds(362, 5, 236, 52);
-		menuCenter.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 268, 358, 52, 236, 1, true));
+		// Sliced once here; the pause button swaps between the two on every press
+		pause_off = imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1474, 628, 56, 56, 1, false);
+		pause_on = imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1418, 566, 56, 56, 1, false);
 		pause.setBounds(780, 5, 56, 56);
-		pause.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1474, 628, 56, 56, 1, false));
+		pause.setIcon(pause_off);
 		pause.setBorder(null);
 		pause.setContentAreaFilled(false);
 		pause.addActionListener(this);
@@ -94,25 +102,9 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		menu.setBorder(null);
 		menu.setContentAreaFilled(false);
 		menu.addActionListener(this);
-		waveNums[0].setBounds(365, 10, 44, 40);
-		waveNums[1].setBounds(409, 10, 44, 40);
-		waveNums[2].setBounds(480, 10, 20, 40);
-		waveNums[3].setBounds(500, 10, 20, 40);
-		moneyNums[0].setBounds(100, 10, 44, 40);
-		moneyNums[1].setBounds(120, 10, 44, 40);
-		moneyNums[2].setBounds(140, 10, 44, 40);
-		moneyNums[3].setBounds(160, 10, 44, 40);
-		countDown.setBounds(0, 0, 960, 640);
-		countDown.setVisible(false);
-		countDown.setHorizontalAlignment(JLabel.CENTER);
 		
-		layeredPane.add(bg, Integer.valueOf(-30010));
-		layeredPane.add(path, Integer.valueOf(-30009));
-		layeredPane.add(obstacle1, Integer.valueOf(-30006));
-		layeredPane.add(obstacle2, Integer.valueOf(-30006));
-		layeredPane.add(start, Integer.valueOf(-30008));
-		layeredPane.add(menuBG, Integer.valueOf(-30008));
-		layeredPane.add(menuCenter, Integer.valueOf(-30007));
+		// Scenery, carrot, monsters, towers and the HUD digits are all painted by the canvas underneath everything else
+		layeredPane.add(canvas, Integer.valueOf(-30010));
 		layeredPane.add(pause, Integer.valueOf(-30007));
 		layeredPane.add(menu, Integer.valueOf(-30007));
 		layeredPane.add(choosingBox, Integer.valueOf(100));
@@ -123,16 +115,9 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		layeredPane.add(restart, Integer.valueOf(201));
 		layeredPane.add(chooseLevel, Integer.valueOf(201));
 		layeredPane.add(gameOverPane, Integer.valueOf(200));
-		layeredPane.add(countDown, Integer.valueOf(200));
-		
-		for(int i = 0; i < 4; i++) {
-			layeredPane.add(waveNums[i]);
-			layeredPane.add(moneyNums[i]);
-		}
 		
-		for(int i = 0; i < 30; i++) {
-			monsters[i] = new Monster(mode);
-			layeredPane.add(monsters[i], Integer.valueOf(-30000));
+		for(int i = 0; i < monsterViews.length; i++) {
+			monsterViews[i] = new MonsterView(mode);
 		}
 		
 		contentPane = (JPanel)this.getContentPane();
@@ -140,6 +125,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		contentPane.setLayout(null);
 	
 		this.setLayout();
+		canvas.setScenery(getScenery());
 		
 		for(int i = 0; i < 72; i++) {
 			hasTower[i] = 0;
@@ -228,14 +214,16 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		range_210 = imgReader.getImageIcon("Images/Items\\Items00-hd.png", 644, 2, 339, 339, 1, false);
 		range_280 = imgReader.getImageIcon("Images/Items\\Items00-hd.png", 2, 644, 480, 480, 1, false);
 		range_360 = imgReader.getImageIcon("Images/Items\\Items00-hd.png", 2, 2, 640, 640, 1, false);
+		loadMillis = (System.nanoTime() - loadStart) / 1000000;
+		if(PRINT_STATS) System.out.println(getLoadStats());
 		while(true) {
 			try {
 				Thread.sleep(1);
 			} catch (InterruptedException e) {}
 			if(this.isVisible()) {
-				monsterThread = new MonsterThread(monsters, mode, waveNums, moneyNums, bottle, sunFlower, carrot, gameOverPane, towers, upgrade,
-													countDown);
+				monsterThread = new MonsterThread(simulation, monsterViews, canvas, bottle, sunFlower, carrot, gameOverPane, towers, upgrade);
 				monsterThread.start();
+				canvas.start();
 				loading.setVisible(false);
 				break;
 			}
@@ -243,139 +231,62 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 	}
 	
 	public void setLayout() {
-		switch (mode) {
-		case 0:
-			obstacle1.setIcon(imgReader.getImageIcon("Images/Theme1\\Items\\Object01-hd.png", 2, 2, 160, 156, 1, false));
-			obstacle1.setBounds(400, 440, 160, 160);
-			obstacle2.setVisible(false);
-			start.setIcon(imgReader.getImageIcon("Images/Theme1\\Items\\Object01-hd.png", 320, 2, 93, 73, 0.8, false));
-			start.setBounds(80, 110, 75, 60);
-			carrot = new Carrot(805, 60, 20);
-			layeredPane.add(carrot, Integer.valueOf(-30006));
-			new Thread((Runnable) carrot).start();
-			block = new HashSet<Integer>();
-			block.add(1); block.add(10); block.add(13); block.add(22); block.add(25); block.add(28);
-			block.add(29); block.add(30); block.add(31); block.add(34); block.add(37); block.add(38);
-			block.add(39); block.add(40); block.add(43); block.add(44); block.add(45); block.add(46);
-			block.add(48); block.add(49); block.add(53); block.add(54); block.add(58); block.add(59);
-			block.add(60); block.add(61); block.add(62); block.add(63); block.add(65); block.add(66);
-			block.add(68); block.add(69); block.add(70); block.add(71);
-			break;
-		case 1:
-			obstacle1.setIcon(imgReader.getImageIcon("Images/Theme2\\Items\\Object01-hd.png", 145, 82, 75, 64, 1, true));
-			obstacle1.setBounds(10, 285, 80, 80);
-			obstacle2.setIcon(imgReader.getImageIcon("Images/Theme2\\Items\\Object01-hd.png", 2, 442, 152, 64, 1, false));
-			obstacle2.setBounds(645, 370, 152, 64);
-			start.setIcon(imgReader.getImageIcon("Images/Theme1\\Items\\Object01-hd.png", 320, 2, 93, 73, 0.8, false));
-			start.setBounds(0, 110, 75, 60);
-			carrot = new Carrot(725, 380, 60);
-			layeredPane.add(carrot, Integer.valueOf(-30005));
-			Thread t = new Thread((Runnable) carrot);
-			t.start();
-			block = new HashSet<Integer>();
-				for(int i = 0; i < 10; i++) {
-					block.add(i);
-				}
-				block.add(21); block.add(24);
-				for(int i = 26; i < 34; i++) {
-					block.add(i);
-				}
-				block.add(38); block.add(44); block.add(45);
-				for(int i = 48; i < 72; i++) {
-					if(i == 65 || i == 66) continue;
-					block.add(i);
-				}
-			break;
-		case 2:
-			obstacle1.setIcon(imgReader.getImageIcon("Images/Theme3\\Items\\Object01-hd.png", 2, 2, 156, 116, 1, false));
-			obstacle1.setBounds(5, 300, 156, 116);
-			obstacle2.setIcon(imgReader.getImageIcon("Images/Theme3\\Items\\Object01-hd.png", 2, 246, 124, 132, 1, false));
-			obstacle2.setBounds(655, 135, 124, 132);
-			start.setIcon(imgReader.getImageIcon("Images/Theme1\\Items\\Object01-hd.png", 320, 2, 93, 73, 0.8, false));
-			start.setBounds(20, 200, 75, 60);
-			carrot = new Carrot(805, 60, 20);
-			layeredPane.add(carrot, Integer.valueOf(-30005));
-			new Thread((Runnable) carrot).start();
-			block = new HashSet<Integer>();
-			for(int i = 0; i < 3; i++) {
-				for(int j = 1; j < 6; j++) {
-					block.add(12 * j + i);
-				}
-			}
-			for(int i = 0; i < 6; i++) {
-				block.add(12 * i + 10);
-			}
-			block.add(8); block.add(9); block.add(20); block.add(21);
-			for(int i = 28; i < 32; i++) {
-				block.add(i);
-			}
-			block.add(40); block.add(43); block.add(51); block.add(52);
-			block.add(55); block.add(56); block.add(57); block.add(59);
-			block.add(63); block.add(68); block.add(69); block.add(71);
-			break;		
+		carrot = newCarrot();
+		block = MapLayout.blockedCells(mode);
+	}
+
+	// Background, path, top bar, spawn marker and obstacles, flattened once while the level's theme is open
+	private BufferedImage getScenery() {
+		BufferedImage scenery = theme.getScenery();
+		if(scenery != null) return scenery;
+		bg = getMyBackground();
+		path = getPath();
+		menuBG.setBounds(12, -1, 926, 78);
+		menuBG.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 2, 2, 926, 78, 1, false));
+		menuCenter.setBounds(362, 5, 236, 52);
+		menuCenter.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 268, 358, 52, 236, 1, true));
+		JLabel[] layers = new JLabel[5 + level.obstacles.length];
+		layers[0] = bg;
+		layers[1] = path;
+		layers[2] = place(level.start);
+		layers[3] = menuBG;
+		layers[4] = menuCenter;
+		for(int i = 0; i < level.obstacles.length; i++) {
+			layers[5 + i] = place(level.obstacles[i]);
 		}
+		scenery = GameCanvas.composeScenery(layers);
+		theme.setScenery(scenery);
+		return scenery;
 	}
 	
 	public JLabel getMyBackground() {
-		JLabel bg = new JLabel();
-		bg.setBounds(0, 0, 960, 640);
-		switch (mode) {
-		case 0:
-			bg.setIcon(imgReader.getImageIcon("Images/Theme1\\BG0\\BG1-hd.png", 0, 0, 960, 640, 1, false));
-			break;
-		case 1:
-			bg.setIcon(imgReader.getImageIcon("Images/Theme2\\BG0\\BG1-hd.png", 0, 0, 960, 640, 1, false));
-			break;
-		case 2:
-			bg.setIcon(imgReader.getImageIcon("Images/Theme3\\BG0\\BG1-hd.png", 0, 0, 960, 640, 1, false));
-			break;
-		}
-		return bg;
+		return place(level.background);
 	}
 
 	public JLabel getPath() {
-		JLabel path = new JLabel();
-		switch (mode) {
-		case 0:
-			path.setBounds(0, 120, 960, 482);
-			path.setIcon(imgReader.getImageIcon("Images/Theme1\\BG1\\BG-hd.png", 0, 0, 960, 482, 1, false));
-			break;
-		case 1:
-			path.setBounds(0, 110, 960, 492);
-			path.setIcon(imgReader.getImageIcon("Images/Theme2\\BG1\\BG-hd.png", 0, 0, 960, 492, 1, false));
-			break;
-		case 2:
-			path.setBounds(0, 140, 960, 464);
-			path.setIcon(imgReader.getImageIcon("Images/Theme3\\BG1\\BG-hd.png", 0, 0, 464, 960, 1, true));
-			break;
-		}
-		return path;
+		return place(level.path);
+	}
+
+	private JLabel place(Sprite sprite) {
+		JLabel label = new JLabel();
+		label.setBounds(sprite.atX, sprite.atY, sprite.atWidth, sprite.atHeight);
+		label.setIcon(sprite.load());
+		return label;
+	}
+
+	private Carrot newCarrot() {
+		return new Carrot(level.carrotX, level.carrotY, level.heartY, simulation.getCarrot());
 	}
 	
 	public void restart() {
-		layeredPane.remove(carrot);
-		switch(mode) {
-		case 0:
-			carrot = new Carrot(805, 60, 20);
-			break;
-		case 1:
-			carrot = new Carrot(725, 380, 60);
-			break;
-		case 2:
-			carrot = new Carrot(805, 60, 20);
-			break;
-		}
-		layeredPane.add(carrot, Integer.valueOf(-30005));
-		new Thread((Runnable) carrot).start();		
+		simulation = new GameSimulation(mode);
+		carrot = newCarrot();
 		for(int i = 0; i < 72; i++) {
 			hasTower[i] = 0;
 			towers[i] = null;
 		}
-		for(int i = 0; i < 30; i++) {
-			monsters[i].renew(1);
-		}
 		paused = false;
-		monsterThread = new MonsterThread(monsters, mode, waveNums, moneyNums, bottle, sunFlower, carrot, gameOverPane, towers, upgrade, countDown);
+		monsterThread = new MonsterThread(simulation, monsterViews, canvas, bottle, sunFlower, carrot, gameOverPane, towers, upgrade);
 		monsterThread.start();
 	}
 	
@@ -385,7 +296,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 			if(!popupMenuBG.isVisible() && !gameOverPane.isVisible()) {
 				musicModule.play("select");
 				if(paused) {
-					pause.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1474, 628, 56, 56, 1, false));
+					pause.setIcon(pause_off);
 					paused = false;
 					monsterThread.myResume();
 					carrot.myResume();
@@ -396,7 +307,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 						if(hasTower[i] != 0) towers[i].myResume();
 					}
 				}else {
-					pause.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1418, 566, 56, 56, 1, false));
+					pause.setIcon(pause_on);
 					paused = true;
 					monsterThread.pause();
 					carrot.pause();
@@ -410,7 +321,8 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 			}
 		}else if(obj == (Object)bottle){
 			if(!paused && !gameOverPane.isVisible()) {
-				if(monsterThread.money >= 100) {
+				// Paid before the tower exists, so a kill crediting at the same time cannot make it free
+				if(simulation.getEconomy().debit(100)) {
 					musicModule.play("towerBuild");
 					int x;
 					int y = choosingBox.getY() + 80;
@@ -418,26 +330,17 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 					else if(choosingBox.getX() == 800) x = 880;
 					else x = choosingBox.getX() + 40;
 					int index = x / 80 + (y / 80 - 1) * 12;
-					Tower tmp = new TBottle(x, y, monsters, monsters.length - (2 - mode) * 10, cells[index]);
+					Tower tmp = new TBottle(x, y);
 					towers[index] = tmp;
-					layeredPane.add(tmp);
-					Thread t = new Thread(tmp);
-					t.start();
+					simulation.addTower(tmp.getModel());
 					hasTower[index] = 1;
-					monsterThread.money -= tmp.price;
-					if(monsterThread.money < 100) bottle.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 55, 80, 76, 78, 0.8, true));
-					if(monsterThread.money < 180) sunFlower.setIcon(imgReader.getImageIcon("Images/Towers\\TSun-hd.png", 522, 1000, 76, 78, 0.8, false));
-					moneyNums[0].setIcon(WhiteNum.nums[monsterThread.money / 1000]);
-					moneyNums[1].setIcon(WhiteNum.nums[(monsterThread.money / 100) % 10]);
-					moneyNums[2].setIcon(WhiteNum.nums[(monsterThread.money / 10) % 10]);
-					moneyNums[3].setIcon(WhiteNum.nums[monsterThread.money % 10]);
 					choosingBox.setVisible(false);
 					chosenCell.setVisible(false);
 				}
 			}
 		}else if(obj == (Object)sunFlower){
 			if(!paused && !gameOverPane.isVisible()) {
-				if(monsterThread.money >= 180) {
+				if(simulation.getEconomy().debit(180)) {
 					musicModule.play("towerBuild");
 					int x;
 					int y = choosingBox.getY() + 80;
@@ -445,23 +348,10 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 					else if(choosingBox.getX() == 800) x = 880;
 					else x = choosingBox.getX() + 40;
 					int index = x / 80 + (y / 80 - 1) * 12;
-					Tower tmp = new TSunFlower(x, y, monsters, monsters.length - (2 - mode) * 10);
-					Thread t = new Thread(tmp);
-					t.start();
+					Tower tmp = new TSunFlower(x, y);
+					simulation.addTower(tmp.getModel());
 					towers[index] = tmp;
-					layeredPane.add(tmp);
 					hasTower[index] = 2;
-					monsterThread.money -= tmp.price;
-					if(monsterThread.money < 100) {
-						bottle.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 55, 80, 76, 78, 0.8, true));
-					}
-					if(monsterThread.money < 180) {
-						sunFlower.setIcon(imgReader.getImageIcon("Images/Towers\\TSun-hd.png", 522, 1000, 76, 78, 0.8, false));
-					}
-					moneyNums[0].setIcon(WhiteNum.nums[monsterThread.money / 1000]);
-					moneyNums[1].setIcon(WhiteNum.nums[(monsterThread.money / 100) % 10]);
-					moneyNums[2].setIcon(WhiteNum.nums[(monsterThread.money / 10) % 10]);
-					moneyNums[3].setIcon(WhiteNum.nums[monsterThread.money % 10]);
 					choosingBox.setVisible(false);
 					chosenCell.setVisible(false);
 				}
@@ -472,21 +362,9 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 				int x = operatingBox.getX() + 360;
 				int y = operatingBox.getY() + 360;
 				int index = x / 80 + (y / 80 - 1) * 12;
-				monsterThread.money += (int)(towers[index].price * 0.8);
-				towers[index].setVisible(false);
-				towers[index].sell();
+				simulation.sellTower(towers[index].getModel());
 				towers[index] = null;
 				hasTower[index] = 0;
-				moneyNums[0].setIcon(WhiteNum.nums[monsterThread.money / 1000]);
-				moneyNums[1].setIcon(WhiteNum.nums[(monsterThread.money / 100) % 10]);
-				moneyNums[2].setIcon(WhiteNum.nums[(monsterThread.money / 10) % 10]);
-				moneyNums[3].setIcon(WhiteNum.nums[monsterThread.money % 10]);
-				if(monsterThread.money >= 100) {
-					bottle.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 55, 2, 76, 78, 0.8, true));
-				}
-				if(monsterThread.money >= 180) {
-					sunFlower.setIcon(imgReader.getImageIcon("Images/Towers\\TSun-hd.png", 442, 1000, 76, 78, 0.8, true));
-				}
 				operatingBox.setVisible(false);
 			}
 		}else if(obj == (Object)upgrade){
@@ -495,21 +373,11 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 				int x = operatingBox.getX() + 360;
 				int y = operatingBox.getY() + 360;
 				index = x / 80 + (y / 80 - 1) * 12;
-				if(monsterThread.money >= towers[index].upgradePrice) {
+				int price = towers[index].getUpgradePrice();
+				if(simulation.getEconomy().debit(price)) {
 					musicModule.play("towerUpgrade");
-					monsterThread.money -= towers[index].upgradePrice;
-					towers[index].upgrade();
-					moneyNums[0].setIcon(WhiteNum.nums[monsterThread.money / 1000]);
-					moneyNums[1].setIcon(WhiteNum.nums[(monsterThread.money / 100) % 10]);
-					moneyNums[2].setIcon(WhiteNum.nums[(monsterThread.money / 10) % 10]);
-					moneyNums[3].setIcon(WhiteNum.nums[monsterThread.money % 10]);
+					simulation.upgradeTower(towers[index].getModel(), price);
 					operatingBox.setVisible(false);
-					if(monsterThread.money < 100) {
-						bottle.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 55, 80, 76, 78, 0.8, true));
-					}
-					if(monsterThread.money < 180) {
-						sunFlower.setIcon(imgReader.getImageIcon("Images/Towers\\TSun-hd.png", 522, 1000, 76, 78, 0.8, false));
-					}
 				}
 			}
 		}else if(obj == (Object)menu){
@@ -535,7 +403,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 			resume.setVisible(false);
 			restart.setVisible(false);
 			chooseLevel.setVisible(false);
-			pause.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1474, 628, 56, 56, 1, false));
+			pause.setIcon(pause_off);
 			paused = false;
 			monsterThread.myResume();
 			carrot.myResume();
@@ -553,7 +421,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 			chooseLevel.setVisible(false);
 			gameOverPane.setVisible(false);
 			operatingBox.setVisible(false);
-			pause.setIcon(imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1474, 628, 56, 56, 1, false));
+			pause.setIcon(pause_off);
 			monsterThread.interrupt();
 			carrot.interrupt();
 			for(int i = 0; i < towers.length; i++) {
@@ -573,7 +441,11 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 			for(int i = 0; i < towers.length; i++) {
 				if(hasTower[i] != 0) towers[i].interrupt();
 			}
-			Monster.setTexNull();
+			canvas.stop();
+			if(PRINT_STATS) {
+				System.out.println("Rendered " + canvas.getFrameStats());
+				System.out.println("Bullet pool: " + TBottle.bullets.getStatsSummary());
+			}
 			mainMenu.setLocation(this.getX(),this.getY());
 			mainMenu.show();
 			this.dispose();
@@ -600,29 +472,34 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 							switch(towers[i].getLevel()) {
 							case 1:
 								sell.setIcon(sell_80);
-								if(monsterThread.money < towers[i].upgradePrice) {
+								if(!simulation.getEconomy().canAfford(towers[i].getUpgradePrice())) {
 									upgrade.setIcon(_upgrade_180);
 									upgrade.setName("_upgrade_180");
 								}
-								else
+								else {
 									upgrade.setIcon(upgrade_180);
+									upgrade.setName(null);
+								}
 								range.setBounds(188, 188, 424, 424);
 								range.setIcon(range_200);
 								break;
 							case 2:
 								sell.setIcon(sell_144);
-								if(monsterThread.money < towers[i].upgradePrice) {
+								if(!simulation.getEconomy().canAfford(towers[i].getUpgradePrice())) {
 									upgrade.setIcon(_upgrade_260);
 									upgrade.setName("_upgrade_260");
 								}
-								else
+								else {
 									upgrade.setIcon(upgrade_260);
+									upgrade.setName(null);
+								}
 								range.setBounds(160, 160, 480, 480);
 								range.setIcon(range_280);
 								break;
 							case 3:
 								sell.setIcon(sell_208);
 								upgrade.setIcon(cant_upgrade);
+								upgrade.setName(null);
 								range.setBounds(80, 80, 640, 640);
 								range.setIcon(range_360);
 								break;
@@ -645,30 +522,34 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 							switch(towers[i].getLevel()) {
 							case 1:
 								sell.setIcon(sell_144);
-								if(monsterThread.money < towers[i].upgradePrice) {
+								if(!simulation.getEconomy().canAfford(towers[i].getUpgradePrice())) {
 									upgrade.setIcon(_upgrade_260);
 									upgrade.setName("_upgrade_260");
 								}
-								
-								else
+								else {
 									upgrade.setIcon(upgrade_260);
+									upgrade.setName(null);
+								}
 								range.setBounds(259, 259, 282, 282);
 								range.setIcon(range_150);
 								break;
 							case 2:
 								sell.setIcon(sell_208);
-								if(monsterThread.money < towers[i].upgradePrice) {
+								if(!simulation.getEconomy().canAfford(towers[i].getUpgradePrice())) {
 									upgrade.setIcon(_upgrade_320);
 									upgrade.setName("_upgrade_320");
 								}
-								else
+								else {
 									upgrade.setIcon(upgrade_320);
+									upgrade.setName(null);
+								}
 								range.setBounds(230, 230, 339, 339);
 								range.setIcon(range_210);
 								break;
 							case 3:
 								sell.setIcon(sell_256);
 								upgrade.setIcon(cant_upgrade);
+								upgrade.setName(null);
 								range.setBounds(230, 230, 339, 339);
 								range.setIcon(range_210);
 								break;
@@ -702,11 +583,19 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 	}
 	
 	public Monster[] getMonsters() {
-		return monsters;
+		return simulation.getMonsters();
+	}
+	
+	public MonsterView[] getMonsterViews() {
+		return monsterViews;
+	}
+	
+	GameSimulation getSimulation() {
+		return simulation;
 	}
 	
 	public int getMonsterCount() {
-		return monsters.length;
+		return simulation.getMonsterStore().size();
 	}
 	
 	public Object getCell(int x, int y) {
@@ -721,9 +610,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		int index = x / 80 + (y / 80 - 1) * 12;
 		if (index >= 0 && index < towers.length) {
 			towers[index] = tower;
-			layeredPane.add(tower);
-			Thread t = new Thread(tower);
-			t.start();
+			simulation.addTower(tower.getModel());
 			hasTower[index] = 1;
 		}
 	}
@@ -731,8 +618,7 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 	public void removeTower(int x, int y) {
 		int index = x / 80 + (y / 80 - 1) * 12;
 		if (index >= 0 && index < towers.length && towers[index] != null) {
-			towers[index].setVisible(false);
-			towers[index].sell();
+			simulation.sellTower(towers[index].getModel());
 			towers[index] = null;
 			hasTower[index] = 0;
 		}
@@ -747,23 +633,38 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 	}
 	
 	public int getMoney() {
-		return monsterThread != null ? monsterThread.money : 250;
+		return simulation.getEconomy().get();
 	}
 	
-	public void deductMoney(int amount) {
-		if (monsterThread != null) {
-			monsterThread.money -= amount;
-			updateMoneyDisplay();
-		}
+	// False, and nothing taken, if the money is not there at the moment of paying
+	public boolean deductMoney(int amount) {
+		return simulation.getEconomy().debit(amount);
 	}
 	
 	public void addMoney(int amount) {
-		if (monsterThread != null) {
-			monsterThread.money += amount;
-			updateMoneyDisplay();
-		}
+		simulation.getEconomy().credit(amount);
 	}
 	
+	long getLoadMillis() {
+		return loadMillis;
+	}
+
+	long getPreloadMillis() {
+		return preloadMillis;
+	}
+
+	String getLoadStats() {
+		return "Level assets loaded in " + loadMillis + " ms, " + preloadMillis + " ms of it preloading on "
+				+ AssetPreloader.defaultThreads(AssetPreloader.manifest(level).size()) + " threads (" + SpriteSheetCache.getStatsSummary() + "; "
+				+ TextureCache.getStatsSummary() + ")";
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		if(theme != null) theme.close();
+	}
+
 	public boolean isPaused() {
 		return paused;
 	}
@@ -822,16 +723,8 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		return upgrade;
 	}
 	
-	public JLabel getCountDownLabel() {
-		return countDown;
-	}
-	
-	public JLabel[] getWaveNums() {
-		return waveNums;
-	}
-	
-	public JLabel[] getMoneyNums() {
-		return moneyNums;
+	GameCanvas getCanvas() {
+		return canvas;
 	}
 	
 	public void setupBackground(GameElement bg) {
@@ -848,18 +741,39 @@ public class GamePanel extends JFrame implements ActionListener, Runnable{
 		this.path.setIcon(imgReader.getImageIcon(path.getImagePath(), 0, 0, path.getWidth(), path.getHeight(), 1, false));
 	}
 	
-	private void updateMoneyDisplay() {
-		if (monsterThread != null && moneyNums != null) {
-			int money = monsterThread.money;
-			moneyNums[0].setIcon(WhiteNum.nums[money / 1000]);
-			moneyNums[1].setIcon(WhiteNum.nums[(money / 100) % 10]);
-			moneyNums[2].setIcon(WhiteNum.nums[(money / 10) % 10]);
-			moneyNums[3].setIcon(WhiteNum.nums[money % 10]);
-		}
-	}
-	
 	// Method to set GameFacade for integration
 	public void setGameFacade(GameFacade gameFacade) {
 		// This method allows to GamePanel to work with refactored GameFacade
 	}
-}
\ No newline at end of file
+}
+
+// The loading picture with a bar under its caption that fills as AssetPreloader finishes each step
+class LoadingScreen extends JComponent {
+	private static final Color FRAME = new Color(20, 34, 48), EMPTY = new Color(44, 64, 84), FILL = new Color(190, 225, 240);
+	private final Image picture;
+	private volatile int done, total = 1;
+
+	LoadingScreen(Image picture) {
+		this.picture = picture;
+		this.setBounds(0, 0, 960, 640);
+		this.setOpaque(true);
+	}
+
+	// Safe to call from any thread
+	void setProgress(int done, int total) {
+		this.total = Math.max(total, 1);
+		this.done = done;
+		repaint();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		g.drawImage(picture, 0, 0, this);
+		g.setColor(FRAME);
+		g.fillRect(330, 450, 300, 12);
+		g.setColor(EMPTY);
+		g.fillRect(332, 452, 296, 8);
+		g.setColor(FILL);
+		g.fillRect(332, 452, 296 * Math.min(done, total) / total, 8);
+	}
+}
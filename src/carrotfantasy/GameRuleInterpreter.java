@@ -1,5 +1,7 @@
 package carrotfantasy;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
@@ -8,6 +10,110 @@ import java.util.Stack;
 // Abstract expression interface
 interface GameExpression {
     boolean interpret(GameContext context);
+
+    // Resolves variables to slots and returns an evaluator over a double[] context
+    CompiledRule compile(RuleSlots slots);
+
+    // The value of this expression as a comparison operand; anything but a number or variable counts as 0
+    default CompiledOperand compileOperand(RuleSlots slots) {
+        return values -> 0;
+    }
+
+    // An operand of an ordering comparison in the tree: a number, or a variable holding a Number.
+    // Anything else, booleans and unset variables included, reads as 0.
+    static double numericValue(GameExpression expr, GameContext context) {
+        if (expr instanceof NumberExpression) {
+            return ((NumberExpression) expr).getValue();
+        }
+        if (expr instanceof VariableExpression) {
+            Object value = context.getVariable(((VariableExpression) expr).getVariableName());
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+        }
+        return 0;
+    }
+}
+
+// Compiled forms: chains of closures over a flat double[] indexed by RuleSlots, with no boxing or lookups.
+// Booleans are stored as 1 and 0, and an unset slot reads as 0, like a missing variable.
+interface CompiledRule {
+    boolean test(double[] values);
+}
+
+interface CompiledOperand {
+    double value(double[] values);
+}
+
+// Variable name to slot table, filled in as a rule compiles. It also notes which variables are operands of
+// an ordering comparison or of ==, where the tree and the compiled form can read a value differently.
+class RuleSlots {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final BitSet ordered = new BitSet();
+    private final BitSet equated = new BitSet();
+
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(name, slot);
+        }
+        return slot;
+    }
+
+    // -1 if no compiled rule uses the name
+    public int find(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    void markOperand(GameExpression operand, boolean equality) {
+        if (operand instanceof VariableExpression) {
+            (equality ? equated : ordered).set(slotOf(((VariableExpression) operand).getVariableName()));
+        }
+    }
+
+    boolean isOrdered(int slot) {
+        return ordered.get(slot);
+    }
+
+    boolean isEquated(int slot) {
+        return equated.get(slot);
+    }
+}
+
+// Builds comparison closures, with direct array reads for the common variable-versus-number case
+class RuleCompiler {
+    static final int GT = 0, LT = 1, GE = 2, LE = 3, EQ = 4;
+
+    static CompiledRule compare(int op, GameExpression left, GameExpression right, RuleSlots slots) {
+        slots.markOperand(left, op == EQ);
+        slots.markOperand(right, op == EQ);
+        if (left instanceof VariableExpression && right instanceof NumberExpression) {
+            int slot = slots.slotOf(((VariableExpression) left).getVariableName());
+            double c = ((NumberExpression) right).getValue();
+            switch (op) {
+                case GT: return values -> values[slot] > c;
+                case LT: return values -> values[slot] < c;
+                case GE: return values -> values[slot] >= c;
+                case LE: return values -> values[slot] <= c;
+                default: return values -> values[slot] == c;
+            }
+        }
+        CompiledOperand l = left.compileOperand(slots);
+        CompiledOperand r = right.compileOperand(slots);
+        switch (op) {
+            case GT: return values -> l.value(values) > r.value(values);
+            case LT: return values -> l.value(values) < r.value(values);
+            case GE: return values -> l.value(values) >= r.value(values);
+            case LE: return values -> l.value(values) <= r.value(values);
+            default: return values -> l.value(values) == r.value(values);
+        }
+    }
 }
 
 // Terminal expressions - represent primitive operations
@@ -33,6 +139,18 @@ class VariableExpression implements GameExpression {
         }
         return value != null;
     }
+
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        int slot = slots.slotOf(variableName);
+        return values -> values[slot] != 0;
+    }
+
+    @Override
+    public CompiledOperand compileOperand(RuleSlots slots) {
+        int slot = slots.slotOf(variableName);
+        return values -> values[slot];
+    }
 }
 
 class NumberExpression implements GameExpression {
@@ -47,6 +165,18 @@ class NumberExpression implements GameExpression {
         return value != 0;
     }
 
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        boolean result = value != 0;
+        return values -> result;
+    }
+
+    @Override
+    public CompiledOperand compileOperand(RuleSlots slots) {
+        double v = value;
+        return values -> v;
+    }
+
     public double getValue() {
         return value;
     }
@@ -66,6 +196,13 @@ class AndExpression implements GameExpression {
     public boolean interpret(GameContext context) {
         return left.interpret(context) && right.interpret(context);
     }
+
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        CompiledRule l = left.compile(slots);
+        CompiledRule r = right.compile(slots);
+        return values -> l.test(values) && r.test(values);
+    }
 }
 
 class OrExpression implements GameExpression {
@@ -81,6 +218,13 @@ class OrExpression implements GameExpression {
     public boolean interpret(GameContext context) {
         return left.interpret(context) || right.interpret(context);
     }
+
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        CompiledRule l = left.compile(slots);
+        CompiledRule r = right.compile(slots);
+        return values -> l.test(values) || r.test(values);
+    }
 }
 
 class NotExpression implements GameExpression {
@@ -94,6 +238,12 @@ class NotExpression implements GameExpression {
     public boolean interpret(GameContext context) {
         return !expression.interpret(context);
     }
+
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        CompiledRule e = expression.compile(slots);
+        return values -> !e.test(values);
+    }
 }
 
 // Comparison expressions
@@ -107,23 +257,15 @@ class GreaterThanExpression implements GameExpression {
     }
 
     @Override
-    public boolean interpret(GameContext context) {
-        double leftVal = getNumericValue(left, context);
-        double rightVal = getNumericValue(right, context);
-        return leftVal > rightVal;
+    public CompiledRule compile(RuleSlots slots) {
+        return RuleCompiler.compare(RuleCompiler.GT, left, right, slots);
     }
 
-    private double getNumericValue(GameExpression expr, GameContext context) {
-        if (expr instanceof NumberExpression) {
-            return ((NumberExpression) expr).getValue();
-        }
-        if (expr instanceof VariableExpression) {
-            Object value = context.getVariable(((VariableExpression) expr).getVariableName());
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-        }
-        return 0;
+    @Override
+    public boolean interpret(GameContext context) {
+        double leftVal = GameExpression.numericValue(left, context);
+        double rightVal = GameExpression.numericValue(right, context);
+        return leftVal > rightVal;
     }
 }
 
@@ -137,23 +279,15 @@ class LessThanExpression implements GameExpression {
     }
 
     @Override
-    public boolean interpret(GameContext context) {
-        double leftVal = getNumericValue(left, context);
-        double rightVal = getNumericValue(right, context);
-        return leftVal < rightVal;
+    public CompiledRule compile(RuleSlots slots) {
+        return RuleCompiler.compare(RuleCompiler.LT, left, right, slots);
     }
 
-    private double getNumericValue(GameExpression expr, GameContext context) {
-        if (expr instanceof NumberExpression) {
-            return ((NumberExpression) expr).getValue();
-        }
-        if (expr instanceof VariableExpression) {
-            Object value = context.getVariable(((VariableExpression) expr).getVariableName());
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-        }
-        return 0;
+    @Override
+    public boolean interpret(GameContext context) {
+        double leftVal = GameExpression.numericValue(left, context);
+        double rightVal = GameExpression.numericValue(right, context);
+        return leftVal < rightVal;
     }
 }
 
@@ -167,23 +301,15 @@ class GreaterThanOrEqualExpression implements GameExpression {
     }
 
     @Override
-    public boolean interpret(GameContext context) {
-        double leftVal = getNumericValue(left, context);
-        double rightVal = getNumericValue(right, context);
-        return leftVal >= rightVal;
+    public CompiledRule compile(RuleSlots slots) {
+        return RuleCompiler.compare(RuleCompiler.GE, left, right, slots);
     }
 
-    private double getNumericValue(GameExpression expr, GameContext context) {
-        if (expr instanceof NumberExpression) {
-            return ((NumberExpression) expr).getValue();
-        }
-        if (expr instanceof VariableExpression) {
-            Object value = context.getVariable(((VariableExpression) expr).getVariableName());
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-        }
-        return 0;
+    @Override
+    public boolean interpret(GameContext context) {
+        double leftVal = GameExpression.numericValue(left, context);
+        double rightVal = GameExpression.numericValue(right, context);
+        return leftVal >= rightVal;
     }
 }
 
@@ -197,23 +323,15 @@ class LessThanOrEqualExpression implements GameExpression {
     }
 
     @Override
-    public boolean interpret(GameContext context) {
-        double leftVal = getNumericValue(left, context);
-        double rightVal = getNumericValue(right, context);
-        return leftVal <= rightVal;
+    public CompiledRule compile(RuleSlots slots) {
+        return RuleCompiler.compare(RuleCompiler.LE, left, right, slots);
     }
 
-    private double getNumericValue(GameExpression expr, GameContext context) {
-        if (expr instanceof NumberExpression) {
-            return ((NumberExpression) expr).getValue();
-        }
-        if (expr instanceof VariableExpression) {
-            Object value = context.getVariable(((VariableExpression) expr).getVariableName());
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-        }
-        return 0;
+    @Override
+    public boolean interpret(GameContext context) {
+        double leftVal = GameExpression.numericValue(left, context);
+        double rightVal = GameExpression.numericValue(right, context);
+        return leftVal <= rightVal;
     }
 }
 
@@ -226,6 +344,11 @@ class EqualsExpression implements GameExpression {
         this.right = right;
     }
 
+    @Override
+    public CompiledRule compile(RuleSlots slots) {
+        return RuleCompiler.compare(RuleCompiler.EQ, left, right, slots);
+    }
+
     @Override
     public boolean interpret(GameContext context) {
         Object leftVal = getValue(left, context);
@@ -372,25 +495,95 @@ class GameRuleParser {
 }
 
 // Interpreter facade - provides easy-to-use interface
+// Rules are compiled once on construction. Hot loops should resolve slots with slotOf, fill their own
+// double[] from newContext() and call evaluate(double[]); the named-variable methods remain for one-off checks.
+// evaluate() gives the same answers the tree always gave: it uses the compiled rule only while every variable
+// holds a value both forms read alike.
 class GameRuleInterpreter {
     private GameExpression expression;
     private GameContext context;
+    private RuleSlots slots;
+    private CompiledRule compiled;
+    private double[] values;
+    // Whether the compiled form reads each slot's current value exactly as the tree does; while any slot
+    // is not, evaluate() walks the tree
+    private boolean[] exact;
+    private int inexact;
 
     public GameRuleInterpreter(String ruleExpression) {
         this.expression = GameRuleParser.parse(ruleExpression);
         this.context = new GameContext();
+        this.slots = new RuleSlots();
+        this.compiled = expression.compile(slots);
+        this.values = new double[slots.size()];
+        this.exact = new boolean[slots.size()];
+        resetSlots();
     }
 
     public void setVariable(String name, Object value) {
         context.setVariable(name, value);
+        int slot = slots.find(name);
+        if (slot == -1) return;
+        if (value instanceof Number) {
+            values[slot] = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            values[slot] = (Boolean) value ? 1 : 0;
+        } else {
+            values[slot] = 0;
+        }
+        setExact(slot, readsLikeTree(slot, value));
     }
 
     public boolean evaluate() {
-        return expression.interpret(context);
+        return inexact > 0 ? expression.interpret(context) : compiled.test(values);
+    }
+
+    // The tree reads a Boolean or a missing variable as 0 in <, >, <= and >=, and == is Object.equals against
+    // the Double of a number literal, so only a Double compares the same way in both forms
+    private boolean readsLikeTree(int slot, Object value) {
+        if (slots.isEquated(slot)) {
+            if (!(value instanceof Double)) return false;
+            // Double.equals also tells NaN and -0.0 apart differently from ==
+            double d = (Double) value;
+            return d == d && Double.doubleToRawLongBits(d) != Double.doubleToRawLongBits(-0.0);
+        }
+        if (value instanceof Boolean) {
+            return !((Boolean) value && slots.isOrdered(slot));
+        }
+        return value == null || value instanceof Number;
+    }
+
+    private void setExact(int slot, boolean e) {
+        if (exact[slot] == e) return;
+        exact[slot] = e;
+        inexact += e ? -1 : 1;
+    }
+
+    private void resetSlots() {
+        Arrays.fill(values, 0);
+        inexact = 0;
+        for (int slot = 0; slot < exact.length; slot++) {
+            exact[slot] = true;
+            setExact(slot, readsLikeTree(slot, null));
+        }
+    }
+
+    // Slot of a variable in the arrays taken by evaluate(double[]), or -1 if the rule never reads it
+    public int slotOf(String name) {
+        return slots.find(name);
+    }
+
+    public double[] newContext() {
+        return new double[slots.size()];
+    }
+
+    public boolean evaluate(double[] context) {
+        return compiled.test(context);
     }
 
     public void clearContext() {
         context.clear();
+        resetSlots();
     }
 }
 
@@ -0,0 +1,413 @@
+package carrotfantasy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Callbacks for things the UI reacts to; every method defaults to doing nothing
+interface SimulationListener {
+	// 3, 2, 1 while counting down, 0 for "go" and -1 once the banner should disappear
+	default void countDown(int number) {}
+	default void monsterKilled(Monster monster) {}
+	default void monsterReached(Monster monster) {}
+	default void waveStarted(int currentWave) {}
+	default void gameOver(boolean victory, int wave, int carrotHP) {}
+}
+
+class CarrotModel {
+	private int HP;
+
+	CarrotModel() {
+		HP = 10;
+	}
+
+	void hurt(int h) {
+		HP -= h;
+	}
+
+	int getHP() {
+		return HP;
+	}
+
+	void setHP(int h) {
+		HP = h;
+	}
+}
+
+// The whole game as plain data: waves, monster movement, towers, carrot and money.
+// It never touches AWT or Swing, so it runs headless as fast as step() can be called.
+class GameSimulation {
+	private final int mode;
+	private final Level level;
+	private final MonsterStore monsters;
+	// Monsters per wave when the caller overrides the level's count, 0 otherwise
+	private final int fixedWaveSize;
+	private int waveSize;
+	private int spawned;
+	private final MonsterPath route;
+	private final MonsterGrid grid;
+	private int[] candidates;
+	private final DamageQueue hits;
+	private final DamageQueue.Sink applyHit = this::applyHit;
+	private final List<TowerModel> towers;
+	// Towers are built from the event thread; they join the step on the loop thread, ahead of any commands for them
+	private final ConcurrentLinkedQueue<TowerModel> pendingTowers;
+	// Upgrades and sales asked for from the event thread, applied on the loop thread so a tower's stats
+	// only ever change on the thread that fights with them
+	private final ConcurrentLinkedQueue<Runnable> towerCommands;
+	private final CarrotModel carrot;
+	private SimulationListener listener;
+	private boolean countDown0, countDown1, countDown2, countDown3;
+	// Shared with the shop buttons, which spend from the event thread
+	private final Economy economy;
+	private int wave;
+	private int currentWave;
+	private int count;
+	private long duration;
+	private boolean over, victory;
+
+	GameSimulation(int m) {
+		this(m, 0);
+	}
+
+	// A waveSize above 0 replaces the level's monster count for every wave; benchmarks and stress runs use it
+	GameSimulation(int m, int waveSize) {
+		mode = m;
+		level = LevelLoader.get(mode);
+		fixedWaveSize = waveSize;
+		this.waveSize = waveSize > 0 ? waveSize : level.waveSize(1);
+		// The store grows on demand; this only avoids the first few doublings
+		int capacity = Math.min(this.waveSize, 64);
+		monsters = new MonsterStore(mode, capacity);
+		route = level.route;
+		grid = new MonsterGrid(capacity);
+		candidates = new int[capacity];
+		hits = new DamageQueue(4096);
+		towers = new ArrayList<>();
+		pendingTowers = new ConcurrentLinkedQueue<>();
+		towerCommands = new ConcurrentLinkedQueue<>();
+		carrot = new CarrotModel();
+		listener = new SimulationListener() {};
+		economy = new Economy(level.money);
+		wave = level.waves;
+		currentWave = 1;
+	}
+
+	Economy getEconomy() {
+		return economy;
+	}
+
+	void setListener(SimulationListener l) {
+		listener = l;
+	}
+
+	void addTower(TowerModel tower) {
+		pendingTowers.add(tower);
+	}
+
+	// The caller has already debited the price it showed. It is refunded if the tower is gone, at its top
+	// level or priced differently by then, as when a second upgrade is asked for before the first has landed.
+	void upgradeTower(TowerModel tower, int paid) {
+		towerCommands.add(() -> {
+			if(tower.isActive() && tower.level < 3 && tower.upgradePrice == paid) {
+				tower.upgrade();
+			}else {
+				economy.credit(paid);
+			}
+		});
+	}
+
+	// Refunds 80% of the price once every upgrade asked for before the sale has landed
+	void sellTower(TowerModel tower) {
+		towerCommands.add(() -> {
+			if(!tower.isActive()) return;
+			tower.sell();
+			economy.credit((int)(tower.price * 0.8));
+		});
+	}
+
+	void step(long deltaTime) {
+		if(over) return;
+		duration += deltaTime;
+		if(Math.abs(duration - 7000) < 13 && !countDown3) {
+			listener.countDown(3);
+			countDown3 = true;
+		}
+		if(Math.abs(duration - 8000) < 20 && !countDown2) {
+			listener.countDown(2);
+			countDown2 = true;
+		}
+		if(Math.abs(duration - 9000) < 20 && !countDown1) {
+			listener.countDown(1);
+			countDown1 = true;
+		}
+		if(Math.abs(duration - 10000) < 20 && !countDown0) {
+			listener.countDown(0);
+			countDown1 = true;
+		}
+		if(Math.abs(duration - 10500) < 20 && !countDown0) {
+			countDown0 = true;
+			listener.countDown(-1);
+		}
+		// One monster per spawn interval once the countdown is over, each in whichever slot the store hands out
+		while(spawned < waveSize && spawned < (duration - 9000) / level.spawnInterval) {
+			spawnMonster();
+		}
+		MonsterStore m = monsters;
+		double step = deltaTime * level.speed;
+		int limit = m.limit();
+		for(int i = 0; i < limit; i++) {
+			if(!m.isOnField(i)) continue;
+			if(route.advance(m, i, step)) {
+				count++;
+				carrot.hurt(m.getPower(i));
+				m.release(i);
+				listener.monsterReached(m.get(i));
+				if(carrot.getHP() <= 0) {
+					finish(false, currentWave);
+					return;
+				}
+			}
+		}
+		grid.rebuild(m);
+		drainTowerQueues();
+		for(int j = towers.size() - 1; j >= 0; j--) {
+			if(!towers.get(j).isActive()) towers.remove(j);
+		}
+		for(int j = 0; j < towers.size(); j++) {
+			towers.get(j).update(this, deltaTime);
+		}
+		// Every hit queued since the last tick lands here in one batch, on this thread, in the order queued
+		applyHits();
+		if(count == waveSize) {
+			if(++currentWave > wave) {
+				finish(true, wave);
+			}else {
+				waveSize = fixedWaveSize > 0 ? fixedWaveSize : level.waveSize(currentWave);
+				spawned = 0;
+				count = 0;
+				duration = 5000;
+				listener.waveStarted(currentWave);
+			}
+		}
+	}
+
+	// Queues damage for the monster in slot; generation is the slot's generation when the tower aimed at it.
+	// Safe to call from any thread; the hit lands on the next drain.
+	void hit(int slot, int generation, int damage) {
+		hits.add(slot, generation, damage);
+	}
+
+	private void applyHit(int slot, int generation, int damage) {
+		// The slot has been handed to a newer monster since the tower aimed at it
+		if(monsters.generations[slot] != generation) return;
+		monsters.hp[slot] -= damage;
+		if(monsters.hp[slot] <= 0) kill(slot);
+	}
+
+	// Credits a kill exactly once: only a monster still on the field can die
+	private void kill(int i) {
+		if(!monsters.isOnField(i)) return;
+		count++;
+		monsters.setAlive(i, false);
+		economy.credit(monsters.getMoney(i));
+		monsters.release(i);
+		listener.monsterKilled(monsters.get(i));
+	}
+
+	private void finish(boolean won, int reachedWave) {
+		over = true;
+		victory = won;
+		drainTowerQueues();
+		for(int j = 0; j < towers.size(); j++) {
+			towers.get(j).stop();
+		}
+		listener.gameOver(won, reachedWave, carrot.getHP());
+	}
+
+	private void drainTowerQueues() {
+		TowerModel added;
+		while((added = pendingTowers.poll()) != null) {
+			towers.add(added);
+		}
+		Runnable command;
+		while((command = towerCommands.poll()) != null) {
+			command.run();
+		}
+	}
+
+	// Takes a slot for the wave's next monster and starts it walking; returns the slot index
+	int spawnMonster() {
+		int i = monsters.acquire();
+		monsters.spawn(i, currentWave);
+		spawned++;
+		if(candidates.length < monsters.capacity()) candidates = new int[monsters.capacity()];
+		return i;
+	}
+
+	// Puts monster i back at the spawn point at the start of its route
+	void respawn(int i) {
+		monsters.renew(i, currentWave);
+	}
+
+	// Walks monster i along this mode's route
+	void move(int i, long deltaTime) {
+		route.advance(monsters, i, deltaTime * level.speed);
+	}
+
+	// Binary state for GameSnapshot. The caller records mode and the fixed wave size, which the constructor
+	// needs; everything else needed to resume the game mid-wave is written here.
+	void writeState(ByteBuffer out) {
+		drainTowerQueues();
+		out.putInt(economy.get()).putInt(wave).putInt(currentWave).putInt(count).putLong(duration);
+		out.putInt(waveSize).putInt(spawned);
+		out.put((byte)((countDown0 ? 1 : 0) | (countDown1 ? 2 : 0) | (countDown2 ? 4 : 0) | (countDown3 ? 8 : 0) |
+						(over ? 16 : 0) | (victory ? 32 : 0)));
+		out.putInt(carrot.getHP());
+		// Slots keep their indices across a save, since the towers' pending shots refer to them
+		out.putInt(monsters.limit());
+		for(int i = 0; i < monsters.limit(); i++) {
+			out.putInt(monsters.hp[i]).putDouble(monsters.distances[i]).put(monsters.flags[i]);
+		}
+		int active = 0;
+		for(TowerModel tower : towers) {
+			if(tower.isActive()) active++;
+		}
+		out.putInt(active);
+		for(TowerModel tower : towers) {
+			if(!tower.isActive()) continue;
+			out.put((byte)(tower instanceof TBottleModel ? 1 : 2));
+			out.putInt(tower.xPos - 40).putInt(tower.yPos - 40);
+			out.put((byte)tower.level);
+			tower.writeTimers(out, monsters);
+		}
+	}
+
+	void readState(ByteBuffer in) {
+		economy.set(in.getInt());
+		wave = in.getInt();
+		currentWave = in.getInt();
+		count = in.getInt();
+		duration = in.getLong();
+		waveSize = in.getInt();
+		spawned = in.getInt();
+		int flags = in.get();
+		countDown0 = (flags & 1) != 0;
+		countDown1 = (flags & 2) != 0;
+		countDown2 = (flags & 4) != 0;
+		countDown3 = (flags & 8) != 0;
+		over = (flags & 16) != 0;
+		victory = (flags & 32) != 0;
+		carrot.setHP(in.getInt());
+		int limit = in.getInt();
+		monsters.ensureCapacity(limit);
+		Arrays.fill(monsters.flags, (byte)0);
+		for(int i = 0; i < limit; i++) {
+			monsters.renew(i, currentWave);
+			monsters.hp[i] = in.getInt();
+			// Every monster on the field belongs to the current wave
+			monsters.maxHp[i] = monsters.fullHp(currentWave);
+			route.place(monsters, i, in.getDouble());
+			monsters.flags[i] = in.get();
+		}
+		monsters.restore();
+		if(candidates.length < monsters.capacity()) candidates = new int[monsters.capacity()];
+		towers.clear();
+		pendingTowers.clear();
+		towerCommands.clear();
+		int n = in.getInt();
+		for(int j = 0; j < n; j++) {
+			int type = in.get();
+			int x = in.getInt(), y = in.getInt();
+			int level = in.get();
+			TowerModel tower = type == 1 ? new TBottleModel(x, y) : new TSunFlowerModel(x, y);
+			while(tower.level < level) {
+				tower.upgrade();
+			}
+			tower.readTimers(in, monsters);
+			towers.add(tower);
+		}
+		grid.rebuild(monsters);
+	}
+
+	// Upper bound on the bytes writeState needs: the header, then per slot its hp, distance and flags, then per
+	// tower its type, position, level and timers
+	int stateSize() {
+		int monsterBytes = Integer.BYTES + Double.BYTES + Byte.BYTES;
+		int towerBytes = Byte.BYTES + 2 * Integer.BYTES + Byte.BYTES + TowerModel.TIMER_BYTES;
+		return 72 + monsters.limit() * monsterBytes + (towers.size() + pendingTowers.size()) * towerBytes;
+	}
+
+	int getMode() {
+		return mode;
+	}
+
+	int getFixedWaveSize() {
+		return fixedWaveSize;
+	}
+
+	// Indexed by slot; only slots below getMonsterLimit() can hold a monster on the field
+	Monster[] getMonsters() {
+		return monsters.getMonsters();
+	}
+
+	int getMonsterLimit() {
+		return monsters.limit();
+	}
+
+	MonsterStore getMonsterStore() {
+		return monsters;
+	}
+
+	int getWaveSize() {
+		return waveSize;
+	}
+
+	DamageQueue getHits() {
+		return hits;
+	}
+
+	// Lands the queued hits now rather than at the end of the next step
+	int applyHits() {
+		return hits.drain(applyHit);
+	}
+
+	MonsterGrid getGrid() {
+		return grid;
+	}
+
+	// Scratch space for grid queries; only valid during a single tower update
+	int[] getCandidateBuffer() {
+		return candidates;
+	}
+
+	List<TowerModel> getTowers() {
+		return towers;
+	}
+
+	CarrotModel getCarrot() {
+		return carrot;
+	}
+
+	int getWave() {
+		return wave;
+	}
+
+	int getCurrentWave() {
+		return currentWave;
+	}
+
+	long getDuration() {
+		return duration;
+	}
+
+	boolean isOver() {
+		return over;
+	}
+
+	boolean isVictory() {
+		return victory;
+	}
+}
@@ -0,0 +1,65 @@
+package carrotfantasy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Compact binary save of a whole GameSimulation: towers, monsters, carrot, money, waves and elapsed time.
+// Layout: a 16 byte header (magic, version, payload length, CRC32 of the payload), then the payload of
+// mode, fixed wave size and GameSimulation.writeState. SaveGameStateVisitor's text dump stays for debugging.
+class GameSnapshot {
+	static final int MAGIC = 0x43465331; // "CFS1"
+	static final int VERSION = 1;
+	private static final int HEADER = 16;
+
+	// Save from the game loop thread, or while the board is paused
+	static void save(GameSimulation sim, Path file) throws IOException {
+		ByteBuffer payload = ByteBuffer.allocate(8 + sim.stateSize());
+		payload.putInt(sim.getMode()).putInt(sim.getFixedWaveSize());
+		sim.writeState(payload);
+		payload.flip();
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC).putInt(VERSION).putInt(payload.remaining()).putInt((int)crc.getValue());
+		header.flip();
+		// Write beside the target and move it into place, so a crash mid-save never leaves a torn file
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+													StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] buffers = {header, payload};
+			while(payload.hasRemaining()) {
+				channel.write(buffers);
+			}
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	static GameSimulation load(Path file) throws IOException {
+		ByteBuffer buffer;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size < HEADER || size > Integer.MAX_VALUE) throw new IOException("Not a snapshot: " + file);
+			buffer = ByteBuffer.allocate((int)size);
+			while(buffer.hasRemaining() && channel.read(buffer) >= 0);
+		}
+		buffer.flip();
+		if(buffer.getInt() != MAGIC) throw new IOException("Not a snapshot: " + file);
+		int version = buffer.getInt();
+		if(version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+		int length = buffer.getInt();
+		int checksum = buffer.getInt();
+		if(length != buffer.remaining()) throw new IOException("Truncated snapshot: " + file);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate());
+		if((int)crc.getValue() != checksum) throw new IOException("Snapshot checksum mismatch: " + file);
+		GameSimulation sim = new GameSimulation(buffer.getInt(), buffer.getInt());
+		sim.readState(buffer);
+		return sim;
+	}
+}
@@ -11,26 +11,16 @@ public interface GameStrategy {
 
 // Easy mode strategy
 class EasyModeStrategy implements GameStrategy {
-    private int[] pathX = {80, 300, 545, 785};
-    private int[] pathY = {110, 250, 330, 110};
-    private int[] directions = {0, 1, 2, 1, 2, 1, 2};
+    private MonsterPath route = MapLayout.route(0);
 
     @Override
     public void executeMonsterMovement(Monster monster, long deltaTime, int currentWave) {
-        // Implementation would extract movement logic from MonsterThread
-        // This is simplified for demonstration
-        if (monster.yPos < 330) {
-            monster.yPos += deltaTime * getMonsterSpeed(0);
-        } else if (monster.xPos < 300) {
-            monster.xPos += deltaTime * getMonsterSpeed(0);
-        } else if (monster.yPos > 250) {
-            monster.yPos -= deltaTime * getMonsterSpeed(0);
-        }
+        route.advance(monster, deltaTime * monster.getSpeed());
     }
 
     @Override
     public boolean isMonsterReachedEnd(Monster monster) {
-        return monster.xPos >= 785 && monster.yPos <= 110;
+        return monster.getDistance() >= route.length;
     }
 
     @Override
@@ -51,22 +41,16 @@ class EasyModeStrategy implements GameStrategy {
 
 // Medium mode strategy
 class MediumModeStrategy implements GameStrategy {
+    private MonsterPath route = MapLayout.route(1);
+
     @Override
     public void executeMonsterMovement(Monster monster, long deltaTime, int currentWave) {
-        if (monster.xPos < 725) {
-            monster.xPos += deltaTime * getMonsterSpeed(1);
-        } else if (monster.yPos < 420) {
-            monster.yPos += deltaTime * getMonsterSpeed(1);
-        } else if (monster.xPos > 166) {
-            monster.xPos -= deltaTime * getMonsterSpeed(1);
-        } else if (monster.xPos < 680) {
-            monster.xPos += deltaTime * getMonsterSpeed(1);
-        }
+        route.advance(monster, deltaTime * monster.getSpeed());
     }
 
     @Override
     public boolean isMonsterReachedEnd(Monster monster) {
-        return monster.xPos >= 680 && monster.yPos >= 420;
+        return monster.getDistance() >= route.length;
     }
 
     @Override
@@ -87,20 +71,16 @@ class MediumModeStrategy implements GameStrategy {
 
 // Hard mode strategy
 class HardModeStrategy implements GameStrategy {
+    private MonsterPath route = MapLayout.route(2);
+
     @Override
     public void executeMonsterMovement(Monster monster, long deltaTime, int currentWave) {
-        if (monster.xPos < 160) {
-            monster.xPos += deltaTime * getMonsterSpeed(2);
-        } else if (monster.yPos < 420) {
-            monster.yPos += deltaTime * getMonsterSpeed(2);
-        } else if (monster.xPos < 800) {
-            monster.xPos += deltaTime * getMonsterSpeed(2);
-        }
+        route.advance(monster, deltaTime * monster.getSpeed());
     }
 
     @Override
     public boolean isMonsterReachedEnd(Monster monster) {
-        return monster.xPos >= 800 && monster.yPos <= 110;
+        return monster.getDistance() >= route.length;
     }
 
     @Override
@@ -20,17 +20,17 @@ class SaveGameStateVisitor implements GameVisitor {
     public void visit(Tower tower) {
         gameStateData.append("TOWER:").append(tower.getClass().getSimpleName())
                     .append(",level=").append(tower.getLevel())
-                    .append(",power=").append(tower.power)
-                    .append(",range=").append(tower.range)
+                    .append(",power=").append(tower.getPower())
+                    .append(",range=").append(tower.getRange())
                     .append(";");
     }
 
     @Override
     public void visit(Monster monster) {
-        gameStateData.append("MONSTER:hp=").append(monster.HP)
-                    .append(",alive=").append(monster.alive)
-                    .append(",x=").append(monster.xPos)
-                    .append(",y=").append(monster.yPos)
+        gameStateData.append("MONSTER:hp=").append(monster.getHP())
+                    .append(",alive=").append(monster.isAlive())
+                    .append(",x=").append(monster.getX())
+                    .append(",y=").append(monster.getY())
                     .append(";");
     }
 
@@ -171,23 +171,23 @@ class StatisticsVisitor implements GameVisitor {
     @Override
     public void visit(Tower tower) {
         towerCount++;
-        totalTowerValue += tower.price;
+        totalTowerValue += tower.getPrice();
         System.out.println("Tower #" + towerCount + ": " +
                           tower.getClass().getSimpleName() +
                           " (Level " + tower.getLevel() +
-                          ", Power: " + tower.power +
-                          ", Range: " + tower.range + ")");
+                          ", Power: " + tower.getPower() +
+                          ", Range: " + tower.getRange() + ")");
     }
 
     @Override
     public void visit(Monster monster) {
-        totalMonsterHP += monster.HP;
-        if (monster.alive) {
+        totalMonsterHP += monster.getHP();
+        if (monster.isAlive()) {
             aliveMonsterCount++;
         }
-        System.out.println("Monster HP: " + monster.HP +
-                          ", Alive: " + monster.alive +
-                          ", Position: (" + monster.xPos + ", " + monster.yPos + ")");
+        System.out.println("Monster HP: " + monster.getHP() +
+                          ", Alive: " + monster.isAlive() +
+                          ", Position: (" + monster.getX() + ", " + monster.getY() + ")");
     }
 
     @Override
@@ -273,12 +273,12 @@ class RenderVisitor implements GameVisitor {
     }
 
     private void renderNormalMonster(Monster monster) {
-        System.out.println("Rendering normal monster with HP: " + monster.HP);
+        System.out.println("Rendering normal monster with HP: " + monster.getHP());
         // Monster animation logic would go here
     }
 
     private void renderPausedMonster(Monster monster) {
-        System.out.println("Rendering paused monster with HP: " + monster.HP);
+        System.out.println("Rendering paused monster with HP: " + monster.getHP());
         // Monster paused state rendering would go here
     }
 
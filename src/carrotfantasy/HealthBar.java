@@ -0,0 +1,42 @@
+package carrotfantasy;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+// The bar drawn over a monster's head. There are only as many distinct bars as the bar has pixels of fill,
+// so every one is drawn once up front and a monster just picks the image for its HP.
+final class HealthBar {
+	static final int WIDTH = 50, HEIGHT = 6;
+	private static final int INNER = WIDTH - 2;
+	private static final Color FRAME = new Color(40, 24, 16);
+	private static final Color EMPTY = new Color(90, 60, 50);
+	private static final Color FULL = new Color(90, 210, 60), HALF = new Color(240, 190, 40), LOW = new Color(230, 70, 40);
+	// Indexed by filled pixels, 0 to INNER
+	private static final Image[] bars = new Image[INNER + 1];
+
+	static {
+		for(int filled = 0; filled <= INNER; filled++) {
+			BufferedImage bar = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = bar.createGraphics();
+			g.setColor(FRAME);
+			g.fillRect(0, 0, WIDTH, HEIGHT);
+			g.setColor(EMPTY);
+			g.fillRect(1, 1, INNER, HEIGHT - 2);
+			g.setColor(filled * 2 > INNER ? FULL : filled * 4 > INNER ? HALF : LOW);
+			g.fillRect(1, 1, filled, HEIGHT - 2);
+			g.dispose();
+			bars[filled] = bar;
+		}
+	}
+
+	private HealthBar() {}
+
+	// A monster with any HP left always shows at least one pixel of fill
+	static Image get(int hp, int maxHp) {
+		if(hp <= 0 || maxHp <= 0) return bars[0];
+		if(hp >= maxHp) return bars[INNER];
+		return bars[Math.max(1, (int)((long)hp * INNER / maxHp))];
+	}
+}
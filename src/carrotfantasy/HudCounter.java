@@ -0,0 +1,72 @@
+package carrotfantasy;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import javax.swing.ImageIcon;
+
+// A fixed-width number in the top bar, drawn with one of the digit sets (WhiteNum, YellowNum). The digits
+// are kept composed in a small image of their own; a new value redraws only the digits that differ from
+// the last one, and an unchanged value costs a comparison, so the canvas paints the counter as one image
+// whatever happened in between.
+final class HudCounter {
+	private final ImageIcon[] digits;
+	private final int places, pitch;
+	private final int max;
+	private final BufferedImage strip;
+	// Digit currently drawn in each place, most significant first; -1 until the first set()
+	private final int[] shown;
+	private int value = -1;
+
+	// places digits, each pitch pixels to the right of the previous one
+	HudCounter(ImageIcon[] digits, int places, int pitch) {
+		this.digits = digits;
+		this.places = places;
+		this.pitch = pitch;
+		int max = 1;
+		for(int i = 0; i < places; i++) {
+			max *= 10;
+		}
+		this.max = max - 1;
+		int width = 0, height = 0;
+		for(ImageIcon digit : digits) {
+			width = Math.max(width, digit.getIconWidth());
+			height = Math.max(height, digit.getIconHeight());
+		}
+		strip = new BufferedImage(pitch * (places - 1) + width, height, BufferedImage.TYPE_INT_ARGB);
+		shown = new int[places];
+		Arrays.fill(shown, -1);
+	}
+
+	// Shows value, clamped to what fits; returns whether any digit changed
+	boolean set(int value) {
+		value = Math.max(0, Math.min(value, max));
+		if(value == this.value) return false;
+		this.value = value;
+		Graphics2D g = null;
+		for(int place = places - 1, rest = value; place >= 0; place--, rest /= 10) {
+			int digit = rest % 10;
+			if(shown[place] == digit) continue;
+			if(g == null) g = strip.createGraphics();
+			Image image = digits[digit].getImage();
+			int x = place * pitch;
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(x, 0, Math.min(pitch, strip.getWidth() - x), strip.getHeight());
+			g.setComposite(AlphaComposite.SrcOver);
+			g.drawImage(image, x, 0, null);
+			shown[place] = digit;
+		}
+		if(g != null) g.dispose();
+		return true;
+	}
+
+	int get() {
+		return value;
+	}
+
+	Image getImage() {
+		return strip;
+	}
+}
@@ -1,8 +1,11 @@
 package carrotfantasy;
 
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.ImageIcon;
 
 // Refactored with Flyweight Pattern
@@ -29,8 +32,7 @@ class ConcreteImageFlyweight implements ImageFlyweight {
 
     private BufferedImage loadBaseImage(String path) {
         try {
-            java.io.File imageFile = ImageReader.getImageFile(path);
-            return javax.imageio.ImageIO.read(imageFile);
+            return SpriteSheetCache.getSheet(path);
         } catch (Exception e) {
             System.err.println("Error loading base image: " + path);
             e.printStackTrace();
@@ -66,9 +68,24 @@ class ConcreteImageFlyweight implements ImageFlyweight {
 }
 
 // Flyweight Factory - manages flyweight instances
+// A concurrent pool holding at most a byte budget of decoded sheets, measured by their rasters. Lookups
+// take no lock; a miss loads its sheet outside any lock while other threads wait only for that sheet.
+// Once the pool is over budget the least recently used sheets are dropped until it fits again, though
+// the one just loaded always stays, even if it alone is bigger than the budget. ImageReader and
+// AssetPreloader get their sheets here, and a dropped flyweight takes its sheet out of SpriteSheetCache
+// too, so leaving the pool is what frees the raster.
 class ImageFlyweightFactory {
-    private static final Map<String, ImageFlyweight> flyweightPool = new HashMap<>();
-    private static final Object lock = new Object();
+    // -Dcarrotfantasy.flyweightBudget=<MiB> sets the starting budget; setBudget changes it at run time
+    private static final long DEFAULT_BUDGET = Long.getLong("carrotfantasy.flyweightBudget", 128) * 1024 * 1024;
+    private static final ConcurrentHashMap<String, PoolEntry> flyweightPool = new ConcurrentHashMap<>();
+    private static final AtomicLong clock = new AtomicLong();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+    private static final AtomicLong residentBytes = new AtomicLong();
+    private static volatile long budget = DEFAULT_BUDGET;
+    // Only one thread evicts at a time; the others carry on past it
+    private static final ReentrantLock evicting = new ReentrantLock();
 
     // Get or create flyweight instance
     public static ImageFlyweight getFlyweight(String imagePath) {
@@ -78,42 +95,179 @@ class ImageFlyweightFactory {
 
         // Normalize path
         String normalizedPath = normalizePath(imagePath);
-        
-        synchronized (lock) {
-            // Check if flyweight already exists
-            if (flyweightPool.containsKey(normalizedPath)) {
-                return flyweightPool.get(normalizedPath);
-            }
 
-            // Create new flyweight
-            ImageFlyweight flyweight = new ConcreteImageFlyweight(normalizedPath);
-            flyweightPool.put(normalizedPath, flyweight);
-            return flyweight;
+        PoolEntry entry = flyweightPool.get(normalizedPath);
+        if (entry == null) {
+            PoolEntry created = new PoolEntry(normalizedPath);
+            entry = flyweightPool.putIfAbsent(normalizedPath, created);
+            if (entry == null) {
+                misses.incrementAndGet();
+                created.load.run();
+                ImageFlyweight flyweight = created.get();
+                if (flyweight.getBaseImage() == null) {
+                    // Not kept, so the next call tries the file again
+                    remove(normalizedPath);
+                    return flyweight;
+                }
+                created.lastUsed = clock.incrementAndGet();
+                if (created.count(weigh(flyweight))) {
+                    evictOverBudget(created);
+                }
+                return flyweight;
+            }
         }
+        hits.incrementAndGet();
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.get();
     }
 
     // Get flyweight with subimage key (for sprite sheets)
+    // The rectangle is cut later by getImageIcon, so the flyweight is the whole parent sheet's
     public static ImageFlyweight getFlyweight(String imagePath, int x, int y, int width, int height) {
-        String key = imagePath + ":" + x + "," + y + "," + width + "," + height;
-        return getFlyweight(key);
+        return getFlyweight(imagePath);
     }
 
     // Clear flyweight pool (for memory management)
     public static void clearPool() {
-        synchronized (lock) {
-            flyweightPool.clear();
+        for (String key : flyweightPool.keySet()) {
+            remove(key);
         }
     }
 
+    // Drops one sheet's flyweight, as when the theme it belongs to is closed
+    static void release(String imagePath) {
+        remove(normalizePath(imagePath));
+    }
+
+    static void setBudget(long bytes) {
+        budget = bytes;
+        evictOverBudget(null);
+    }
+
+    static long getBudget() {
+        return budget;
+    }
+
     // Get pool size (for debugging)
     public static int getPoolSize() {
-        synchronized (lock) {
-            return flyweightPool.size();
+        return flyweightPool.size();
+    }
+
+    static long getHits() {
+        return hits.get();
+    }
+
+    static long getMisses() {
+        return misses.get();
+    }
+
+    static long getEvictions() {
+        return evictions.get();
+    }
+
+    static long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    static String getStatsSummary() {
+        return "flyweights=" + getPoolSize() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+                + ", resident=" + (getResidentBytes() / 1024) + " KiB of " + (budget / 1024) + " KiB";
+    }
+
+    private static void evictOverBudget(PoolEntry keep) {
+        if (residentBytes.get() <= budget || !evicting.tryLock()) {
+            return;
         }
+        try {
+            while (residentBytes.get() > budget) {
+                // A handful of sheets at most, so a scan for the oldest is cheaper than keeping an order
+                PoolEntry oldest = null;
+                for (PoolEntry entry : flyweightPool.values()) {
+                    if (entry == keep || !entry.load.isDone()) {
+                        continue;
+                    }
+                    if (oldest == null || entry.lastUsed < oldest.lastUsed) {
+                        oldest = entry;
+                    }
+                }
+                if (oldest == null) {
+                    break;
+                }
+                if (remove(oldest.key)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    private static boolean remove(String key) {
+        PoolEntry entry = flyweightPool.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.uncount();
+        SpriteSheetCache.release(key);
+        return true;
+    }
+
+    private static long weigh(ImageFlyweight flyweight) {
+        BufferedImage image = flyweight == null ? null : flyweight.getBaseImage();
+        return image == null ? 0 : SpriteSheetCache.sizeOf(image);
     }
 
     private static String normalizePath(String path) {
         return path.replace('\\', '/');
     }
-}
 
+    private static final class PoolEntry {
+        final String key;
+        final FutureTask<ImageFlyweight> load;
+        volatile long lastUsed;
+        // What the entry adds to residentBytes; guarded by the entry, since clearPool can drop it mid-load
+        private long bytes;
+        private boolean removed;
+
+        PoolEntry(String key) {
+            this.key = key;
+            this.load = new FutureTask<>(() -> new ConcreteImageFlyweight(key));
+        }
+
+        // Adds the loaded sheet to residentBytes, unless the entry left the pool while it loaded
+        synchronized boolean count(long weight) {
+            if (removed) {
+                return false;
+            }
+            bytes = weight;
+            residentBytes.addAndGet(weight);
+            return true;
+        }
+
+        synchronized void uncount() {
+            removed = true;
+            residentBytes.addAndGet(-bytes);
+            bytes = 0;
+        }
+
+        ImageFlyweight get() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return load.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                // ConcreteImageFlyweight reports its own load errors, so only a bug gets here
+                throw new IllegalStateException("Cannot create flyweight for " + key, e.getCause());
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
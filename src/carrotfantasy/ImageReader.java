@@ -1,17 +1,22 @@
 package carrotfantasy;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 public class ImageReader {
 	private static String projectRoot = null;
+	// The screen's format, or null when headless; icons are scaled into it once so painting one is a plain copy
+	private static final GraphicsConfiguration screen = GraphicsEnvironment.isHeadless() ? null
+			: GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
 	
 	// Find project root directory by looking for Images folder
 	private static String findProjectRoot() {
@@ -100,54 +105,62 @@ public class ImageReader {
 		return imageFile;
 	}
 	
+	// Served from TextureCache when an earlier run already cut the same slice, without touching the sheet;
+	// otherwise cut from the sheet ImageFlyweightFactory holds, so the pool's budget covers it
 	ImageIcon getImageIcon(String file, int x, int y, int width, int height, double ratio, boolean rotate){
-		File imageFile = getImageFile(file);
-		BufferedImage img;
-		ImageIcon imageicon = new ImageIcon();
-		try {
-			img = ImageIO.read(imageFile);
-			if (img == null) {
-				System.err.println("Failed to read image: " + imageFile.getAbsolutePath());
-				return imageicon;
-			}
-			BufferedImage outImg=img.getSubimage(x, y, width, height);
-			if(rotate) outImg = rotate(outImg, -90.0);
-			imageicon = new ImageIcon(outImg);
-			imageicon = new ImageIcon(imageicon.getImage().getScaledInstance((int)(imageicon.getIconWidth() * ratio), (int)(imageicon.getIconHeight() * ratio), Image.SCALE_FAST));
-		} catch (IOException e) {
-			System.err.println("Error reading image file: " + imageFile.getAbsolutePath());
-			e.printStackTrace();
-		} catch (Exception e) {
-			System.err.println("Error processing image: " + imageFile.getAbsolutePath());
-			e.printStackTrace();
+		String slice = TextureCache.sliceKey(x, y, width, height, ratio, rotate ? "r1" : "r0");
+		BufferedImage cached = TextureCache.get(file, slice);
+		if(cached != null) return new ImageIcon(cached);
+		ImageFlyweight sheet = ImageFlyweightFactory.getFlyweight(file);
+		if (sheet == null || sheet.getBaseImage() == null) {
+			System.err.println("Failed to read image: " + getImageFile(file).getAbsolutePath());
+			return new ImageIcon();
 		}
+		ImageIcon imageicon = sheet.getImageIcon(x, y, width, height, ratio, rotate);
+		if(imageicon.getImage() != null) TextureCache.put(file, slice, imageicon.getImage());
 		return imageicon;
 	}
 	
 	ImageIcon getImageIcon(String file, int x, int y, int width, int height, double ratio, double degrees){
-		File imageFile = getImageFile(file);
-		BufferedImage img;
-		ImageIcon imageicon = new ImageIcon();
-		try {
-			img = ImageIO.read(imageFile);
-			if (img == null) {
-				System.err.println("Failed to read image: " + imageFile.getAbsolutePath());
-				return imageicon;
-			}
-			BufferedImage outImg=img.getSubimage(x, y, width, height);
-			outImg = rotate(outImg, degrees);
-			imageicon = new ImageIcon(outImg);
-			imageicon = new ImageIcon(imageicon.getImage().getScaledInstance((int)(imageicon.getIconWidth() * ratio), (int)(imageicon.getIconHeight() * ratio), Image.SCALE_FAST));
-		} catch (IOException e) {
-			System.err.println("Error reading image file: " + imageFile.getAbsolutePath());
-			e.printStackTrace();
-		} catch (Exception e) {
-			System.err.println("Error processing image: " + imageFile.getAbsolutePath());
-			e.printStackTrace();
+		String slice = TextureCache.sliceKey(x, y, width, height, ratio, "d" + degrees);
+		BufferedImage cached = TextureCache.get(file, slice);
+		if(cached != null) return new ImageIcon(cached);
+		ImageFlyweight sheet = ImageFlyweightFactory.getFlyweight(file);
+		if (sheet == null || sheet.getBaseImage() == null) {
+			System.err.println("Failed to read image: " + getImageFile(file).getAbsolutePath());
+			return new ImageIcon();
 		}
+		ImageIcon imageicon = sheet.getImageIcon(x, y, width, height, ratio, degrees);
+		if(imageicon.getImage() != null) TextureCache.put(file, slice, imageicon.getImage());
 		return imageicon;
 	}
 	
+	// Scales once, nearest neighbour like SCALE_FAST, into a new image in the screen's format. The copy keeps
+	// the slice's alpha mode and holds no reference to the sheet it was cut from.
+	static BufferedImage prescale(BufferedImage image, double ratio) {
+		int width = Math.max(1, (int)(image.getWidth() * ratio));
+		int height = Math.max(1, (int)(image.getHeight() * ratio));
+		BufferedImage scaled = compatibleImage(width, height, image.getTransparency());
+		Graphics2D g = scaled.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		g.drawImage(image, 0, 0, width, height, null);
+		g.dispose();
+		return scaled;
+	}
+
+	// What the screen would allocate for this size and alpha mode; plain ARGB or RGB when there is no screen
+	static BufferedImage compatibleImage(int width, int height, int transparency) {
+		if(screen != null) return screen.createCompatibleImage(width, height, transparency);
+		return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+	}
+
+	// For the ARGB slices TextureCache reads back, which are already the screen's format on most displays
+	static BufferedImage toScreenFormat(BufferedImage image) {
+		if(screen == null || screen.getColorModel(Transparency.TRANSLUCENT).equals(image.getColorModel())) return image;
+		return prescale(image, 1);
+	}
+
 	public BufferedImage rotate(BufferedImage image, Double degrees) {
 		double radians = Math.toRadians(degrees);
 		double sin = Math.abs(Math.sin(radians));
@@ -178,8 +191,7 @@ public class ImageReader {
 			}
 			BufferedImage outImg = baseImage.getSubimage(x, y, width, height);
 			if(rotate) outImg = rotate(outImg, -90.0);
-			imageicon = new ImageIcon(outImg);
-			imageicon = new ImageIcon(imageicon.getImage().getScaledInstance((int)(imageicon.getIconWidth() * ratio), (int)(imageicon.getIconHeight() * ratio), Image.SCALE_FAST));
+			imageicon = new ImageIcon(prescale(outImg, ratio));
 		} catch (Exception e) {
 			System.err.println("Error processing subimage");
 			e.printStackTrace();
@@ -197,8 +209,7 @@ public class ImageReader {
 			}
 			BufferedImage outImg = baseImage.getSubimage(x, y, width, height);
 			outImg = rotate(outImg, degrees);
-			imageicon = new ImageIcon(outImg);
-			imageicon = new ImageIcon(imageicon.getImage().getScaledInstance((int)(imageicon.getIconWidth() * ratio), (int)(imageicon.getIconHeight() * ratio), Image.SCALE_FAST));
+			imageicon = new ImageIcon(prescale(outImg, ratio));
 		} catch (Exception e) {
 			System.err.println("Error processing subimage");
 			e.printStackTrace();
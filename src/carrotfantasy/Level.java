@@ -0,0 +1,112 @@
+package carrotfantasy;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.swing.ImageIcon;
+
+// One map as read from Levels/level<id>.json by LevelLoader: scenery, buildable cells, the monster route,
+// waves and monster stats. Immutable, so a parsed level is shared by every game played on it.
+final class Level {
+	final int id;
+	final String name;
+	final int waves;
+	final int money;
+	final Sprite background, path, start;
+	final Sprite[] obstacles;
+	final int carrotX, carrotY, heartY;
+	final Set<Integer> blocked;
+	final MonsterPath route;
+	final int monstersPerWave, extraMonstersPerWave;
+	// Milliseconds between two monsters of a wave leaving the start
+	final int spawnInterval;
+	final int firstWaveHp, hp, hpPerWave;
+	final double speed;
+	final int monsterMoney, power;
+	final Sprite[] monsterFrames;
+
+	Level(int id, String name, int waves, int money, Sprite background, Sprite path, Sprite start, Sprite[] obstacles,
+			int carrotX, int carrotY, int heartY, Set<Integer> blocked, MonsterPath route, int monstersPerWave, int extraMonstersPerWave,
+			int spawnInterval, int firstWaveHp, int hp, int hpPerWave, double speed, int monsterMoney, int power, Sprite[] monsterFrames) {
+		this.id = id;
+		this.name = name;
+		this.waves = waves;
+		this.money = money;
+		this.background = background;
+		this.path = path;
+		this.start = start;
+		this.obstacles = obstacles;
+		this.carrotX = carrotX;
+		this.carrotY = carrotY;
+		this.heartY = heartY;
+		this.blocked = blocked;
+		this.route = route;
+		this.monstersPerWave = monstersPerWave;
+		this.extraMonstersPerWave = extraMonstersPerWave;
+		this.spawnInterval = spawnInterval;
+		this.firstWaveHp = firstWaveHp;
+		this.hp = hp;
+		this.hpPerWave = hpPerWave;
+		this.speed = speed;
+		this.monsterMoney = monsterMoney;
+		this.power = power;
+		this.monsterFrames = monsterFrames;
+	}
+
+	// HP of a monster respawned for the given wave
+	int hpForWave(int wave) {
+		return hp + hpPerWave * (wave - 1);
+	}
+
+	// Monsters in the given wave
+	int waveSize(int wave) {
+		return monstersPerWave + extraMonstersPerWave * (wave - 1);
+	}
+
+	// Every sprite sheet the level's scenery and monsters are cut from
+	Set<String> sheets() {
+		Set<String> sheets = new LinkedHashSet<>();
+		sheets.add(background.sheet);
+		sheets.add(path.sheet);
+		sheets.add(start.sheet);
+		for(Sprite obstacle : obstacles) {
+			sheets.add(obstacle.sheet);
+		}
+		for(Sprite frame : monsterFrames) {
+			sheets.add(frame.sheet);
+		}
+		return sheets;
+	}
+
+	HashSet<Integer> blockedCells() {
+		return new HashSet<Integer>(blocked);
+	}
+}
+
+// A slice of a sprite sheet, as ImageReader.getImageIcon takes it, plus where it goes on the board if it is scenery
+final class Sprite {
+	private static ImageReader imgReader = new ImageReader();
+	final String sheet;
+	final int x, y, width, height;
+	final double scale;
+	final boolean rotate;
+	final int atX, atY, atWidth, atHeight;
+
+	Sprite(String sheet, int x, int y, int width, int height, double scale, boolean rotate, int atX, int atY, int atWidth, int atHeight) {
+		this.sheet = sheet;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+		this.rotate = rotate;
+		this.atX = atX;
+		this.atY = atY;
+		this.atWidth = atWidth;
+		this.atHeight = atHeight;
+	}
+
+	ImageIcon load() {
+		return imgReader.getImageIcon(sheet, x, y, width, height, scale, rotate);
+	}
+}
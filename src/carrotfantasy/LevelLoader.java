@@ -0,0 +1,313 @@
+package carrotfantasy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reads, validates and caches the level files in Levels/. Each file is parsed once per process, so
+// replaying or switching maps never goes back to the disk. Adding a map is a new levelN.json, no rebuild.
+class LevelLoader {
+	private static final ConcurrentHashMap<Integer, Level> levels = new ConcurrentHashMap<>();
+
+	private LevelLoader() {}
+
+	// The parsed level; a missing or malformed file is a packaging error, so it is thrown unchecked
+	static Level get(int id) {
+		Level level = levels.get(id);
+		if(level != null) return level;
+		try {
+			return levels.computeIfAbsent(id, k -> {
+				try {
+					return load(k, ImageReader.getImageFile("Levels/level" + k + ".json"));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw new IllegalStateException("Cannot load level " + id + ": " + e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	static Level load(int id, File file) throws IOException {
+		String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		try {
+			return toLevel(id, asObject(new JsonReader(text).readDocument(), "level"));
+		} catch (IllegalArgumentException e) {
+			throw new IOException(file.getPath() + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static Level toLevel(int id, Map<String, Object> json) {
+		int waves = positive(json, "waves");
+		int money = nonNegative(json, "money");
+		Sprite background = sprite(json, "background", true);
+		Sprite path = sprite(json, "path", true);
+		Sprite start = sprite(json, "start", true);
+		List<Object> obstacleList = asList(json.get("obstacles"), "obstacles");
+		Sprite[] obstacles = new Sprite[obstacleList.size()];
+		for(int i = 0; i < obstacles.length; i++) {
+			obstacles[i] = toSprite(asObject(obstacleList.get(i), "obstacles[" + i + "]"), "obstacles[" + i + "]", true);
+		}
+		Map<String, Object> carrot = asObject(json.get("carrot"), "carrot");
+		Set<Integer> blocked = new HashSet<>();
+		for(Object cell : asList(json.get("blocked"), "blocked")) {
+			int c = asInt(cell, "blocked");
+			if(c < 0 || c >= MapLayout.CELLS) throw new IllegalArgumentException("blocked cell " + c + " is off the board");
+			blocked.add(c);
+		}
+		List<Object> points = asList(json.get("route"), "route");
+		if(points.size() < 2) throw new IllegalArgumentException("route needs at least two waypoints");
+		int[] route = new int[points.size() * 2];
+		for(int i = 0; i < points.size(); i++) {
+			List<Object> point = asList(points.get(i), "route[" + i + "]");
+			if(point.size() != 2) throw new IllegalArgumentException("route[" + i + "] is not an [x, y] pair");
+			route[2 * i] = asInt(point.get(0), "route[" + i + "]");
+			route[2 * i + 1] = asInt(point.get(1), "route[" + i + "]");
+		}
+		Map<String, Object> monster = asObject(json.get("monster"), "monster");
+		int extra = monster.containsKey("countPerWave") ? nonNegative(monster, "countPerWave") : 0;
+		int interval = monster.containsKey("interval") ? positive(monster, "interval") : 1000;
+		double speed = asNumber(monster.get("speed"), "monster.speed");
+		if(speed <= 0) throw new IllegalArgumentException("monster.speed must be positive");
+		List<Object> frameList = asList(monster.get("frames"), "monster.frames");
+		if(frameList.isEmpty()) throw new IllegalArgumentException("monster.frames is empty");
+		Sprite[] frames = new Sprite[frameList.size()];
+		for(int i = 0; i < frames.length; i++) {
+			frames[i] = toSprite(asObject(frameList.get(i), "monster.frames[" + i + "]"), "monster.frames[" + i + "]", false);
+		}
+		return new Level(id, asString(json.get("name"), "name"), waves, money, background, path, start, obstacles,
+							asInt(carrot.get("x"), "carrot.x"), asInt(carrot.get("y"), "carrot.y"), asInt(carrot.get("heartY"), "carrot.heartY"),
+							blocked, new MonsterPath(route), positive(monster, "count"), extra, interval,
+							positive(monster, "firstWaveHp"), positive(monster, "hp"), nonNegative(monster, "hpPerWave"), speed,
+							nonNegative(monster, "money"), nonNegative(monster, "power"), frames);
+	}
+
+	private static Sprite sprite(Map<String, Object> json, String key, boolean placed) {
+		return toSprite(asObject(json.get(key), key), key, placed);
+	}
+
+	private static Sprite toSprite(Map<String, Object> json, String where, boolean placed) {
+		String sheet = asString(json.get("sheet"), where + ".sheet");
+		if(!ImageReader.getImageFile(sheet).isFile()) throw new IllegalArgumentException(where + ".sheet " + sheet + " does not exist");
+		int[] src = rect(json.get("src"), where + ".src");
+		double scale = json.containsKey("scale") ? asNumber(json.get("scale"), where + ".scale") : 1;
+		boolean rotate = json.containsKey("rotate") && asBoolean(json.get("rotate"), where + ".rotate");
+		int[] at = placed ? rect(json.get("at"), where + ".at") : new int[4];
+		return new Sprite(sheet, src[0], src[1], src[2], src[3], scale, rotate, at[0], at[1], at[2], at[3]);
+	}
+
+	private static int[] rect(Object value, String where) {
+		List<Object> list = asList(value, where);
+		if(list.size() != 4) throw new IllegalArgumentException(where + " is not [x, y, width, height]");
+		int[] r = new int[4];
+		for(int i = 0; i < 4; i++) {
+			r[i] = asInt(list.get(i), where);
+		}
+		if(r[2] <= 0 || r[3] <= 0) throw new IllegalArgumentException(where + " has no area");
+		return r;
+	}
+
+	private static int positive(Map<String, Object> json, String key) {
+		int v = asInt(json.get(key), key);
+		if(v <= 0) throw new IllegalArgumentException(key + " must be positive");
+		return v;
+	}
+
+	private static int nonNegative(Map<String, Object> json, String key) {
+		int v = asInt(json.get(key), key);
+		if(v < 0) throw new IllegalArgumentException(key + " must not be negative");
+		return v;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asObject(Object value, String where) {
+		if(!(value instanceof Map)) throw new IllegalArgumentException(where + " must be an object");
+		return (Map<String, Object>)value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> asList(Object value, String where) {
+		if(!(value instanceof List)) throw new IllegalArgumentException(where + " must be an array");
+		return (List<Object>)value;
+	}
+
+	private static double asNumber(Object value, String where) {
+		if(!(value instanceof Double)) throw new IllegalArgumentException(where + " must be a number");
+		return (Double)value;
+	}
+
+	private static int asInt(Object value, String where) {
+		double d = asNumber(value, where);
+		if(d != Math.rint(d) || Math.abs(d) > Integer.MAX_VALUE) throw new IllegalArgumentException(where + " must be a whole number");
+		return (int)d;
+	}
+
+	private static String asString(Object value, String where) {
+		if(!(value instanceof String)) throw new IllegalArgumentException(where + " must be a string");
+		return (String)value;
+	}
+
+	private static boolean asBoolean(Object value, String where) {
+		if(!(value instanceof Boolean)) throw new IllegalArgumentException(where + " must be true or false");
+		return (Boolean)value;
+	}
+}
+
+// Just enough JSON for the level files: objects, arrays, strings, numbers (as Double), true, false and null
+class JsonReader {
+	private final String text;
+	private int pos;
+
+	JsonReader(String text) {
+		this.text = text;
+	}
+
+	Object readDocument() {
+		Object value = readValue();
+		skipSpace();
+		if(pos != text.length()) throw error("unexpected text after the document");
+		return value;
+	}
+
+	private Object readValue() {
+		skipSpace();
+		if(pos >= text.length()) throw error("unexpected end of file");
+		char c = text.charAt(pos);
+		switch(c) {
+		case '{':
+			return readObject();
+		case '[':
+			return readArray();
+		case '"':
+			return readString();
+		case 't':
+			expect("true");
+			return Boolean.TRUE;
+		case 'f':
+			expect("false");
+			return Boolean.FALSE;
+		case 'n':
+			expect("null");
+			return null;
+		default:
+			if(c == '-' || (c >= '0' && c <= '9')) return readNumber();
+			throw error("unexpected '" + c + "'");
+		}
+	}
+
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		pos++;
+		skipSpace();
+		if(peek() == '}') {
+			pos++;
+			return object;
+		}
+		while(true) {
+			skipSpace();
+			if(peek() != '"') throw error("expected a key");
+			String key = readString();
+			skipSpace();
+			if(peek() != ':') throw error("expected ':'");
+			pos++;
+			if(object.put(key, readValue()) != null) throw error("duplicate key \"" + key + "\"");
+			skipSpace();
+			char c = peek();
+			pos++;
+			if(c == '}') return object;
+			if(c != ',') throw error("expected ',' or '}'");
+		}
+	}
+
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		pos++;
+		skipSpace();
+		if(peek() == ']') {
+			pos++;
+			return array;
+		}
+		while(true) {
+			array.add(readValue());
+			skipSpace();
+			char c = peek();
+			pos++;
+			if(c == ']') return array;
+			if(c != ',') throw error("expected ',' or ']'");
+		}
+	}
+
+	private String readString() {
+		StringBuilder sb = new StringBuilder();
+		pos++;
+		while(true) {
+			if(pos >= text.length()) throw error("unterminated string");
+			char c = text.charAt(pos++);
+			if(c == '"') return sb.toString();
+			if(c != '\\') {
+				sb.append(c);
+				continue;
+			}
+			if(pos >= text.length()) throw error("unterminated string");
+			char e = text.charAt(pos++);
+			switch(e) {
+			case 'n': sb.append('\n'); break;
+			case 't': sb.append('\t'); break;
+			case 'r': sb.append('\r'); break;
+			case 'b': sb.append('\b'); break;
+			case 'f': sb.append('\f'); break;
+			case 'u':
+				if(pos + 4 > text.length()) throw error("bad \\u escape");
+				sb.append((char)Integer.parseInt(text.substring(pos, pos + 4), 16));
+				pos += 4;
+				break;
+			default: sb.append(e);
+			}
+		}
+	}
+
+	private Double readNumber() {
+		int start = pos;
+		while(pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+			pos++;
+		}
+		try {
+			return Double.valueOf(text.substring(start, pos));
+		} catch (NumberFormatException e) {
+			throw error("bad number " + text.substring(start, pos));
+		}
+	}
+
+	private void expect(String word) {
+		if(!text.startsWith(word, pos)) throw error("unexpected '" + text.charAt(pos) + "'");
+		pos += word.length();
+	}
+
+	private char peek() {
+		if(pos >= text.length()) throw error("unexpected end of file");
+		return text.charAt(pos);
+	}
+
+	private void skipSpace() {
+		while(pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		int line = 1;
+		for(int i = 0; i < pos && i < text.length(); i++) {
+			if(text.charAt(i) == '\n') line++;
+		}
+		return new IllegalArgumentException("line " + line + ": " + message);
+	}
+}
@@ -13,6 +13,7 @@ public class MainMenu extends JFrame implements ActionListener{
 	private ImageReader imgReader;
 	private static MusicModule musicModule = new MusicModule();
 	private static GamePanel gp;
+	private long readyMillis;
 
 	public static void main(String[] args) {
 		MainMenu mainMenu = new MainMenu();
@@ -24,7 +25,15 @@ public class MainMenu extends JFrame implements ActionListener{
 		this.setSize(975, 640);
 		this.setResizable(false);
 		imgReader = new ImageReader();
+		long start = System.nanoTime();
 		init();
+		readyMillis = (System.nanoTime() - start) / 1000000;
+		// A warm start shows most textures coming from disk rather than cut from freshly decoded sheets
+		if(GamePanel.PRINT_STATS) System.out.println("Menu ready in " + readyMillis + " ms (" + TextureCache.getStatsSummary() + ")");
+	}
+
+	long getReadyMillis() {
+		return readyMillis;
 	}
 	
 	void init(){
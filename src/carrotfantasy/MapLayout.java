@@ -0,0 +1,100 @@
+package carrotfantasy;
+
+import java.util.HashSet;
+
+// Board layout shared by the Swing panel and the headless simulation; the per-map parts come from the level files.
+// The board has 72 build cells, 12 per row; cell i sits at ((i % 12) * 80, (i / 12) * 80 + 120).
+class MapLayout {
+	static final int CELLS = 72;
+	static final int CELL_COLS = 12;
+	static final int CELL_SIZE = 80;
+
+	// Cells covered by the path, obstacles or the carrot, where no tower may be built
+	static HashSet<Integer> blockedCells(int mode) {
+		return LevelLoader.get(mode).blockedCells();
+	}
+
+	static MonsterPath route(int mode) {
+		return LevelLoader.get(mode).route;
+	}
+
+	static int cellX(int cell) {
+		return (cell % CELL_COLS) * CELL_SIZE;
+	}
+
+	static int cellY(int cell) {
+		return (cell / CELL_COLS) * CELL_SIZE + 120;
+	}
+}
+
+// A route compiled once into a polyline measured by arc length. Waypoints are the monster sprite's top left corner. A monster's progress along it is a single
+// distance; MonsterStore.segments remembers the leg it is on, so a lookup only ever steps forward from there.
+final class MonsterPath {
+	private final int[] xs, ys;
+	// Distance from the spawn to each waypoint
+	private final double[] starts;
+	final double length;
+
+	MonsterPath(int... points) {
+		int n = points.length / 2;
+		xs = new int[n];
+		ys = new int[n];
+		starts = new double[n];
+		for(int i = 0; i < n; i++) {
+			xs[i] = points[2 * i];
+			ys[i] = points[2 * i + 1];
+			if(i > 0) starts[i] = starts[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+		}
+		length = starts[n - 1];
+	}
+
+	// The waypoints as x, y pairs, as the constructor took them
+	int[] getPoints() {
+		int[] points = new int[xs.length * 2];
+		for(int i = 0; i < xs.length; i++) {
+			points[2 * i] = xs[i];
+			points[2 * i + 1] = ys[i];
+		}
+		return points;
+	}
+
+	int getStartX() {
+		return xs[0];
+	}
+
+	int getStartY() {
+		return ys[0];
+	}
+
+	// Moves monster i of the store step pixels on; true once it has reached the end of the route
+	boolean advance(MonsterStore s, int i, double step) {
+		double distance = s.distances[i] + step;
+		boolean reached = distance >= length;
+		if(reached) {
+			distance = length;
+			s.setReached(i, true);
+		}
+		s.distances[i] = distance;
+		int seg = s.segments[i];
+		while(seg < xs.length - 2 && starts[seg + 1] <= distance) {
+			seg++;
+		}
+		s.segments[i] = seg;
+		double legLength = starts[seg + 1] - starts[seg];
+		double t = legLength == 0 ? 0 : (distance - starts[seg]) / legLength;
+		s.xs[i] = xs[seg] + (int)Math.round((xs[seg + 1] - xs[seg]) * t);
+		s.ys[i] = ys[seg] + (int)Math.round((ys[seg + 1] - ys[seg]) * t);
+		return reached;
+	}
+
+	boolean advance(Monster m, double step) {
+		return advance(m.getStore(), m.getIndex(), step);
+	}
+
+	// Puts monster i at an arbitrary distance along the route
+	void place(MonsterStore s, int i, double distance) {
+		s.distances[i] = Math.max(0, Math.min(distance, length));
+		s.segments[i] = 0;
+		advance(s, i, 0);
+	}
+}
@@ -0,0 +1,70 @@
+package carrotfantasy;
+
+import java.util.Arrays;
+
+// Uniform bucket grid over the 960x640 playfield, one bucket per 80 px build cell.
+// The wave loop rebuilds it every tick; towers only look at the buckets their range overlaps.
+class MonsterGrid {
+	static final int CELL = 80;
+	static final int COLS = 12;
+	static final int ROWS = 8;
+	// Monster sprites are 100x110, so the grid buckets them by the same centre the towers aim at
+	static final int CENTER_X = 50;
+	static final int CENTER_Y = 55;
+	// Towers measure from slightly different centres; pad queries so no bucket edge is missed
+	private static final int QUERY_PAD = 8;
+	private final int[] head;
+	private int[] next;
+
+	MonsterGrid(int capacity) {
+		head = new int[COLS * ROWS];
+		next = new int[capacity];
+		Arrays.fill(head, -1);
+	}
+
+	// Re-buckets every monster that is on the field
+	void rebuild(MonsterStore monsters) {
+		if(next.length < monsters.capacity()) next = new int[monsters.capacity()];
+		Arrays.fill(head, -1);
+		// Insert backwards so each bucket lists monsters in slot order
+		for(int i = monsters.limit() - 1; i >= 0; i--) {
+			if(!monsters.isOnField(i)) continue;
+			int cell = cellOf(monsters.xs[i] + CENTER_X, monsters.ys[i] + CENTER_Y);
+			next[i] = head[cell];
+			head[cell] = i;
+		}
+	}
+
+	// Writes the indices of monsters in every bucket touched by the square around (cx, cy) into out.
+	// Candidates still need an exact distance check; returns how many were written.
+	int query(int cx, int cy, int radius, int[] out) {
+		int r = radius + QUERY_PAD;
+		int col0 = clampCol((cx - r) / CELL), col1 = clampCol((cx + r) / CELL);
+		int row0 = clampRow((cy - r) / CELL), row1 = clampRow((cy + r) / CELL);
+		int n = 0;
+		for(int row = row0; row <= row1; row++) {
+			for(int col = col0; col <= col1; col++) {
+				for(int i = head[row * COLS + col]; i != -1 && n < out.length; i = next[i]) {
+					out[n++] = i;
+				}
+			}
+		}
+		return n;
+	}
+
+	int capacity() {
+		return next.length;
+	}
+
+	private static int cellOf(int x, int y) {
+		return clampRow(y / CELL) * COLS + clampCol(x / CELL);
+	}
+
+	private static int clampCol(int col) {
+		return col < 0 ? 0 : col >= COLS ? COLS - 1 : col;
+	}
+
+	private static int clampRow(int row) {
+		return row < 0 ? 0 : row >= ROWS ? ROWS - 1 : row;
+	}
+}
@@ -0,0 +1,217 @@
+package carrotfantasy;
+
+import java.util.Arrays;
+
+// Monster slots shared by the wave loop, MonsterGrid and the towers. A monster keeps its slot index from the
+// tick it spawns until it dies or reaches the carrot, so indices held by the grid and the towers stay valid
+// while the store grows. Freed slots go on a free list and the next spawn takes one back; once the store
+// empties the list is rebuilt lowest first, so every wave fills the arrays from the front again.
+//
+// State is kept as one primitive array per field rather than one object per monster, so the per-tick loops
+// stream through contiguous memory. Monster is only a handle onto a slot for the code outside those loops.
+final class MonsterStore {
+	private final Level level;
+	private Monster[] handles;
+	// Indexed by slot and read and written in place by the hot loops. Growing replaces the arrays, so
+	// fetch them from the store again after a spawn instead of holding on to them.
+	int[] hp;
+	// HP the monster started with, for the health bar
+	int[] maxHp;
+	int[] xs, ys;
+	double[] distances;
+	// Route leg each monster is on, so MonsterPath only ever searches forward
+	int[] segments;
+	// Bumped each time a slot is handed to a new monster
+	int[] generations;
+	// One byte of flags per slot. A scan testing a byte per monster is several times cheaper than
+	// walking BitSets with nextSetBit, which cost more than the rest of a tick in MonsterLayoutBenchmark.
+	static final byte USED = 1, BORN = 2, ALIVE = 4, REACHED = 8;
+	private static final byte WALKING = BORN | ALIVE;
+	byte[] flags;
+	private int[] free;
+	private int freeCount;
+	private int size;
+	// Every slot in use is below limit, so loops stop there rather than at the capacity
+	private int limit;
+
+	MonsterStore(int mode, int capacity) {
+		level = LevelLoader.get(mode);
+		handles = new Monster[0];
+		hp = new int[0];
+		maxHp = new int[0];
+		xs = new int[0];
+		ys = new int[0];
+		distances = new double[0];
+		segments = new int[0];
+		generations = new int[0];
+		flags = new byte[0];
+		free = new int[0];
+		ensureCapacity(Math.max(capacity, 1));
+	}
+
+	// Index of a free slot for a new monster, doubling the arrays when none is left
+	int acquire() {
+		if(freeCount == 0) ensureCapacity(handles.length * 2);
+		int i = free[--freeCount];
+		flags[i] |= USED;
+		generations[i]++;
+		size++;
+		if(i >= limit) limit = i + 1;
+		return i;
+	}
+
+	// Gives slot i back; releasing a free slot does nothing
+	void release(int i) {
+		if((flags[i] & USED) == 0) return;
+		flags[i] &= ~USED;
+		size--;
+		if(size == 0) {
+			restore();
+			return;
+		}
+		free[freeCount++] = i;
+		while(limit > 0 && (flags[limit - 1] & USED) == 0) {
+			limit--;
+		}
+	}
+
+	void ensureCapacity(int capacity) {
+		int old = handles.length;
+		if(capacity <= old) return;
+		handles = Arrays.copyOf(handles, capacity);
+		hp = Arrays.copyOf(hp, capacity);
+		maxHp = Arrays.copyOf(maxHp, capacity);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		distances = Arrays.copyOf(distances, capacity);
+		segments = Arrays.copyOf(segments, capacity);
+		generations = Arrays.copyOf(generations, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+		free = Arrays.copyOf(free, capacity);
+		for(int i = old; i < capacity; i++) {
+			handles[i] = new Monster(this, i);
+			hp[i] = level.firstWaveHp;
+			maxHp[i] = hp[i];
+			reset(i);
+		}
+		// Only called with the free list empty or from a rebuild, so the new slots simply go below it
+		for(int i = capacity - 1; i >= old; i--) {
+			free[freeCount++] = i;
+		}
+	}
+
+	// Rebuilds the free list, size and limit from the USED flags, lowest slot first. Snapshot restore
+	// writes the flags directly and then calls this.
+	void restore() {
+		freeCount = 0;
+		size = 0;
+		limit = 0;
+		for(int i = handles.length - 1; i >= 0; i--) {
+			if((flags[i] & USED) == 0) {
+				free[freeCount++] = i;
+			}else {
+				size++;
+				if(limit == 0) limit = i + 1;
+			}
+		}
+	}
+
+	// A new monster of the given wave in slot i, already walking
+	void spawn(int i, int wave) {
+		hp[i] = fullHp(wave);
+		maxHp[i] = hp[i];
+		reset(i);
+		flags[i] |= BORN;
+	}
+
+	// Puts slot i back at the spawn point with the given wave's HP, not yet walking
+	void renew(int i, int wave) {
+		hp[i] = level.hpForWave(wave);
+		maxHp[i] = hp[i];
+		reset(i);
+	}
+
+	// HP a monster of the given wave spawns with
+	int fullHp(int wave) {
+		return wave == 1 ? level.firstWaveHp : level.hpForWave(wave);
+	}
+
+	private void reset(int i) {
+		MonsterPath route = level.route;
+		xs[i] = route.getStartX();
+		ys[i] = route.getStartY();
+		distances[i] = 0;
+		segments[i] = 0;
+		flags[i] = (byte)((flags[i] & USED) | ALIVE);
+	}
+
+	boolean isBorn(int i) {
+		return (flags[i] & BORN) != 0;
+	}
+
+	boolean isAlive(int i) {
+		return (flags[i] & ALIVE) != 0;
+	}
+
+	boolean isReached(int i) {
+		return (flags[i] & REACHED) != 0;
+	}
+
+	// Born, alive and not at the carrot yet
+	boolean isOnField(int i) {
+		return (flags[i] & (WALKING | REACHED)) == WALKING;
+	}
+
+	void setBorn(int i, boolean b) {
+		set(i, BORN, b);
+	}
+
+	void setAlive(int i, boolean b) {
+		set(i, ALIVE, b);
+	}
+
+	void setReached(int i, boolean b) {
+		set(i, REACHED, b);
+	}
+
+	private void set(int i, byte flag, boolean b) {
+		flags[i] = (byte)(b ? flags[i] | flag : flags[i] & ~flag);
+	}
+
+	int getMoney(int i) {
+		return level.monsterMoney;
+	}
+
+	int getPower(int i) {
+		return level.power;
+	}
+
+	double getSpeed() {
+		return level.speed;
+	}
+
+	Monster get(int i) {
+		return handles[i];
+	}
+
+	boolean isUsed(int i) {
+		return (flags[i] & USED) != 0;
+	}
+
+	// One handle per slot, indexed like the arrays; replaced when the store grows
+	Monster[] getMonsters() {
+		return handles;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int limit() {
+		return limit;
+	}
+
+	int capacity() {
+		return handles.length;
+	}
+}
@@ -1,26 +1,31 @@
 package carrotfantasy;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 
-public class MonsterThread extends Thread{
-	private Monster[] monsters;
-	private JLabel[] waveNums;
-	private JLabel[] moneyNums;
+// Swing side of a game: steps the GameSimulation once per tick, then captures the board for the canvas
+// and keeps the shop buttons in step with the money
+public class MonsterThread implements Updatable, SimulationListener, Economy.Listener{
+	private GameSimulation simulation;
+	private MonsterView[] monsterViews;
+	private GameCanvas canvas;
+	private RenderSnapshot.Builder frame;
 	private JButton bottle;
 	private JButton sunFlower;
 	private JButton upgrade;
-	private boolean paused, countDown0, countDown1, countDown2, countDown3;
-	private int mode;
-	private int monsterNum;
-	private int wave;
-	private int currentWave;
-	public int money;
+	private boolean interrupted;
 	private Carrot carrot;
 	private GameOverPanel gameOverPane;
 	private Tower[] towers;
-	private JLabel countDown;
+	private ImageIcon countDown;
+	private int switchCount;
+	// Set when a kill changed the money; the canvas's next frame refreshes the shop once for all of them
+	private final AtomicBoolean shopDirty = new AtomicBoolean();
+	// Which of the bottle and sunflower the shop shows as affordable (bits 1 and 2), -1 before the first refresh
+	private int affordable = -1;
 	private static MusicModule musicModule = new MusicModule();
 	private static ImageReader imgReader = new ImageReader();
 	private static ImageIcon bottleTexture1 = imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 55, 2, 76, 78, 0.8, true);
@@ -35,286 +40,167 @@ public class MonsterThread extends Thread{
 	private static ImageIcon countDown_3 = imgReader.getImageIcon("Images/Items\\Items02-hd.png", 540, 680, 116, 98, 1, true);
 	private static ImageIcon go = imgReader.getImageIcon("Images/Items\\Items02-hd.png", 1280, 42, 200, 200, 1, false);
 
-	MonsterThread(Monster[] mon, int m, JLabel[] wn, JLabel[] mn, JButton b, JButton sun, Carrot c, GameOverPanel gop, Tower[] ts, JButton up,
-					JLabel cd){
-		monsters = mon;
-		money = 250 + m * 250;
-		paused = false;
-		waveNums = wn;
-		moneyNums = mn;
-		mode = m;
-		wave = 5 * mode + 10;
-		monsterNum = mon.length - (2 - mode) * 5 - 10 + currentWave / 2;
-		currentWave = 1;
+	MonsterThread(GameSimulation sim, MonsterView[] mv, GameCanvas gc, JButton b, JButton sun, Carrot c, GameOverPanel gop, Tower[] ts, JButton up){
+		simulation = sim;
+		monsterViews = mv;
+		canvas = gc;
+		frame = new RenderSnapshot.Builder();
 		bottle = b;
 		sunFlower = sun;
 		carrot = c;
 		gameOverPane = gop;
 		towers = ts;
 		upgrade = up;
-		countDown0 = false;
-		countDown1 = false;
-		countDown2 = false;
-		countDown3 = false;
-		countDown = cd;
 	}
 	
-	public void run() {
-		int[] dir = new int[monsterNum];
-		for(int i = 0; i < monsterNum; i++) {
-			dir[i] = 0;
+	// Shows the first wave's HUD and hands the wave loop to the shared GameLoop
+	public void start() {
+		simulation.getEconomy().addListener(this);
+		canvas.setFrameTask(this::flushShop);
+		refreshShop();
+		switchCount = 0;
+		TBottle.bullets.clear();
+		simulation.setListener(this);
+		// A fresh wave loop always starts running, even if the previous game was left paused
+		GameLoop.getInstance().getPauseGate().resume();
+		GameLoop.getInstance().add(this);
+	}
+
+	public boolean update(long deltaTime) {
+		if(this.isInterrupted()) return false;
+		switchCount++;
+		simulation.step(deltaTime);
+		capture(deltaTime);
+		return !simulation.isOver() && !this.isInterrupted();
+	}
+
+	// Builds this tick's RenderSnapshot, back to front, and hands it to the canvas
+	private void capture(long deltaTime) {
+		frame.reset();
+		carrot.sync(frame);
+		Monster[] monsters = simulation.getMonsters();
+		int limit = simulation.getMonsterLimit();
+		if(monsterViews.length < limit) growViews(limit);
+		boolean switchFrame = switchCount % 8 == 0;
+		for(int i = 0; i < limit; i++) {
+			monsterViews[i].sync(monsters[i], switchFrame, frame);
 		}
-		waveNums[0].setIcon(YellowNum.nums[currentWave / 10]);
-		waveNums[1].setIcon(YellowNum.nums[currentWave % 10]);
-		waveNums[2].setIcon(WhiteNum.nums[wave / 10]);
-		waveNums[3].setIcon(WhiteNum.nums[wave % 10]);
-		if(money >= 100) {
-			bottle.setIcon(bottleTexture1);
+		for(int j = 0; j < towers.length; j++) {
+			Tower tower = towers[j];
+			if(tower != null) tower.sync(deltaTime, frame);
 		}
-		else {
-			bottle.setIcon(bottleTexture2);
+		TBottle.bullets.update(deltaTime, frame);
+		frame.setHud(simulation.getEconomy().get(), Math.min(simulation.getCurrentWave(), simulation.getWave()), simulation.getWave());
+		if(countDown != null) frame.setBanner(countDown.getImage());
+		canvas.publish(frame.build());
+	}
+
+	// One view per monster slot, so the views grow along with the simulation's MonsterStore
+	private void growViews(int limit) {
+		int old = monsterViews.length;
+		monsterViews = Arrays.copyOf(monsterViews, Math.max(limit, old * 2));
+		for(int i = old; i < monsterViews.length; i++) {
+			monsterViews[i] = new MonsterView(simulation.getMode());
 		}
-		if(money >= 180) {
-			sunFlower.setIcon(sunFlowerTexture1);
+	}
+
+	public void countDown(int number) {
+		switch(number) {
+		case 3:
+			musicModule.play("countDown");
+			countDown = countDown_3;
+			break;
+		case 2:
+			musicModule.play("countDown");
+			countDown = countDown_2;
+			break;
+		case 1:
+			musicModule.play("countDown");
+			countDown = countDown_1;
+			break;
+		case 0:
+			musicModule.play("countDown");
+			countDown = go;
+			break;
+		default:
+			countDown = null;
 		}
-		else {
-			sunFlower.setIcon(sunFlowerTexture2);
+	}
+
+	// Purchases happen on the event thread and show at once. Kills credit on the loop thread, up to one per
+	// monster per tick, so they only mark the shop and the next frame catches up with all of them.
+	public void moneyChanged(int money) {
+		if(SwingUtilities.isEventDispatchThread()) {
+			refreshShop();
+		}else {
+			shopDirty.set(true);
+		}
+	}
+
+	private void flushShop() {
+		if(shopDirty.getAndSet(false)) refreshShop();
+	}
+
+	// Greys out what the money cannot pay for and lights up an upgrade that has become affordable.
+	// The buttons are only touched when what is affordable changes, not on every change of the balance.
+	private void refreshShop() {
+		int money = simulation.getEconomy().get();
+		int now = (money >= 100 ? 1 : 0) | (money >= 180 ? 2 : 0);
+		if(now != affordable) {
+			if(((now ^ affordable) & 1) != 0) bottle.setIcon((now & 1) != 0 ? bottleTexture1 : bottleTexture2);
+			if(((now ^ affordable) & 2) != 0) sunFlower.setIcon((now & 2) != 0 ? sunFlowerTexture1 : sunFlowerTexture2);
+			affordable = now;
 		}
-		int count = 0;
-		int switchCount = 0;
-		long currentTime;
-		long deltaTime;
-		long lastTime = System.currentTimeMillis();
-		long duration = 0;
-		moneyNums[0].setIcon(WhiteNum.nums[money / 1000]);
-		moneyNums[1].setIcon(WhiteNum.nums[(money / 100) % 10]);
-		moneyNums[2].setIcon(WhiteNum.nums[(money / 10) % 10]);
-		moneyNums[3].setIcon(WhiteNum.nums[money % 10]);
-		while(true) {
-			while(paused) {
-				lastTime = System.currentTimeMillis();
-				if(!paused  || this.isInterrupted()) break;
-			}
-			if(this.isInterrupted()) break;
-			currentTime = System.currentTimeMillis();
-			deltaTime = currentTime - lastTime;
-			duration += deltaTime;
-			switchCount++; 
-			if(Math.abs(duration - 7000) < 13 && !countDown3) {
-				musicModule.play("countDown");
-				countDown.setVisible(true);
-				countDown.setIcon(countDown_3);
-				countDown3 = true;
-			}
-			if(Math.abs(duration - 8000) < 20 && !countDown2) {
-				musicModule.play("countDown");
-				countDown.setIcon(countDown_2);
-				countDown2 = true;
-			}
-			if(Math.abs(duration - 9000) < 20 && !countDown1) {
-				musicModule.play("countDown");
-				countDown.setIcon(countDown_1);
-				countDown1 = true;
-			}
-			if(Math.abs(duration - 10000) < 20 && !countDown0) {
-				musicModule.play("countDown");
-				countDown.setIcon(go);
-				countDown1 = true;
-			}
-			if(Math.abs(duration - 10500) < 20 && !countDown0) {
-				countDown0 = true;
-				countDown.setVisible(false);
-			}
-			for(int i = 0; i < monsterNum; i++) {
-				if(monsters[i].reached || !monsters[i].alive) {
-					continue;
-				}
-				
-				if(i < (duration - 9000) / 1000) {
-					monsters[i].setVisible(true);
-					monsters[i].born = true;
-					if(mode == 0) {
-						switch(dir[i]) {
-						case 0:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 330) dir[i]++;
-							break;
-						case 1:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 300) dir[i]++;
-							break;
-						case 2:
-							monsters[i].yPos -= (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos <= 250) dir[i]++;
-							break;
-						case 3:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 545) dir[i]++;
-							break;
-						case 4:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 330) dir[i]++;
-							break;
-						case 5:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 785) dir[i]++;
-							break;
-						case 6:
-							monsters[i].yPos -= (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos <= 110) monsters[i].reached = true;
-							break;
-						}
-					}else if(mode == 1) {
-						switch(dir[i]) {
-						case 0:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 725) dir[i]++;
-							break;
-						case 1:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 260) dir[i]++;
-							break;
-						case 2:
-							monsters[i].xPos -= (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos <= 166) dir[i]++;
-							break;
-						case 3:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 420) dir[i]++;
-							break;
-						case 4:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 680) monsters[i].reached = true;
-							break;
-						}
-					}else if(mode == 2) {
-						switch(dir[i]) {
-						case 0:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 160) dir[i]++;
-							break;
-						case 1:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 420) dir[i]++;
-							break;
-						case 2:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 320) dir[i]++;
-							break;
-						case 3:
-							monsters[i].yPos -= (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos <= 260) dir[i]++;
-							break;
-						case 4:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 560) dir[i]++;
-							break;
-						case 5:
-							monsters[i].yPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos >= 420) dir[i]++;
-							break;
-						case 6:
-							monsters[i].xPos += (int)(deltaTime * Monster.speed);
-							if(monsters[i].xPos >= 800) dir[i]++;
-							break;
-						case 7:
-							monsters[i].yPos -= (int)(deltaTime * Monster.speed);
-							if(monsters[i].yPos <= 110) monsters[i].reached = true;
-							break;
-						}
-						
-					}
-					
-					monsters[i].setText("HP:" + Integer.toString(monsters[i].HP));
-					monsters[i].setBounds(monsters[i].xPos, monsters[i].yPos, 100, 110);
-					
-					if(switchCount % 8 == 0) monsters[i].switchType();
-					if(monsters[i].HP <= 0) {
-						count++;
-						monsters[i].alive = false;
-						monsters[i].setVisible(false);
-						money += monsters[i].money;
-						moneyNums[0].setIcon(WhiteNum.nums[money / 1000]);
-						moneyNums[1].setIcon(WhiteNum.nums[(money / 100) % 10]);
-						moneyNums[2].setIcon(WhiteNum.nums[(money / 10) % 10]);
-						moneyNums[3].setIcon(WhiteNum.nums[money % 10]);
-						if(money >= 320) {
-							if(upgrade.getName() != null) {
-								if(upgrade.getName().equals("_upgrade_320")) {
-									upgrade.setIcon(upgrade_320);
-									upgrade.setName(null);
-								}
-							}
-						}else if(money >= 260) {
-							if(upgrade.getName() != null) {
-								if(upgrade.getName().equals("_upgrade_260")) {
-									upgrade.setIcon(upgrade_260);
-									upgrade.setName(null);
-								}
-							}
-						}else if(money >= 180) {
-							sunFlower.setIcon(sunFlowerTexture1);
-							if(upgrade.getName() != null) {
-								if(upgrade.getName().equals("_upgrade_180")) {
-									upgrade.setIcon(upgrade_180);
-									upgrade.setName(null);
-								}
-							}
-						}else if(money >= 100) {
-							bottle.setIcon(bottleTexture1);
-						}
-						
-					}
-					if(monsters[i].reached) {
-						musicModule.play("crash");
-						count++;
-						monsters[i].setVisible(false);
-						carrot.hurt(monsters[i].power);
-						if(carrot.getHP() <= 0) {
-							musicModule.play("lose");
-							for(int j = 0; j < towers.length; j++) {
-								if(towers[j] != null) towers[j].gameOver();
-							}
-							this.interrupt();
-							gameOverPane.set(0, currentWave, 0);
-							break;
-						}
-					}
-				}
-			}
-			if(this.isInterrupted()) break;
-			lastTime = currentTime;
-			try {
-				sleep(20);
-			}catch(Exception e) {}
-			if(count == monsterNum) {
-				if(++currentWave > wave) {
-					musicModule.play("perfect");
-					for(int j = 0; j < towers.length; j++) {
-						if(towers[j] != null) towers[j].gameOver();
-					}
-					gameOverPane.set(1, wave, carrot.getHP());
-					break;
-				}else {
-					waveNums[0].setIcon(YellowNum.nums[currentWave / 10]);
-					waveNums[1].setIcon(YellowNum.nums[currentWave % 10]);
-					for(int i = 0; i < monsterNum; i++) {
-						monsters[i].renew(currentWave);
-						dir[i] = 0;
-					}
-					count = 0;
-					switchCount = 0;
-					duration = 5000;
-				}
-			}
+		String name = upgrade.getName();
+		if(name == null) return;
+		ImageIcon enabled = null;
+		if(name.equals("_upgrade_180") && money >= 180) enabled = upgrade_180;
+		else if(name.equals("_upgrade_260") && money >= 260) enabled = upgrade_260;
+		else if(name.equals("_upgrade_320") && money >= 320) enabled = upgrade_320;
+		if(enabled != null) {
+			upgrade.setIcon(enabled);
+			upgrade.setName(null);
 		}
 	}
 
+	public void monsterReached(Monster monster) {
+		musicModule.play("crash");
+	}
+
+	public void waveStarted(int currentWave) {
+		switchCount = 0;
+	}
+
+	public void gameOver(boolean victory, int wave, int carrotHP) {
+		musicModule.play(victory ? "perfect" : "lose");
+		for(int j = 0; j < towers.length; j++) {
+			if(towers[j] != null) towers[j].gameOver();
+		}
+		if(victory) {
+			gameOverPane.set(1, wave, carrotHP);
+		}else {
+			this.interrupt();
+			gameOverPane.set(0, wave, 0);
+		}
+	}
+
+	GameSimulation getSimulation() {
+		return simulation;
+	}
+
 	public void pause() {
-		paused = true;
+		GameLoop.getInstance().getPauseGate().pause();
 	}
 
 	public void myResume() {
-		paused = false;
+		GameLoop.getInstance().getPauseGate().resume();
+	}
+
+	public void interrupt() {
+		interrupted = true;
+	}
+
+	public boolean isInterrupted() {
+		return interrupted;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package carrotfantasy;
+
+import java.awt.Image;
+import javax.swing.ImageIcon;
+
+// Draws one Monster into the frame snapshot; all game state lives in the simulation's MonsterStore
+public class MonsterView {
+	// Height of the HP text plus its gap above the sprite, as the old 100x110 label laid them out
+	private static final int TEXT_HEIGHT = 21;
+	// -Dcarrotfantasy.hpText=true also writes the HP number above each bar, as the game used to
+	private static final boolean SHOW_HP_TEXT = Boolean.getBoolean("carrotfantasy.hpText");
+	private int mode;
+	private int type;
+	// Walk cycle frames of the level being played, owned by its ThemeAssets and shared by every view
+	private final ImageIcon[] textures;
+	// The bar and text for the HP last drawn; a view is reused by every monster in its slot, so HP is the key
+	private int shownHp = -1, shownMaxHp = -1;
+	private Image bar;
+	private String hpText;
+
+	MonsterView(int m){
+		mode = m;
+		textures = ThemeAssets.of(LevelLoader.get(mode)).getMonsterFrames();
+		type = 0;
+	}
+
+	// Adds the monster to the frame if it is on the field; switchFrame advances the walk animation
+	public void sync(Monster monster, boolean switchFrame, RenderSnapshot.Builder frame) {
+		if(!monster.isOnField()) return;
+		if(switchFrame) switchType();
+		ImageIcon icon = textures[type % textures.length];
+		int y = monster.getY() + (110 - icon.getIconHeight() - TEXT_HEIGHT) / 2 + TEXT_HEIGHT;
+		frame.add(icon.getImage(), monster.getX(), y);
+		int hp = monster.getHP(), maxHp = monster.getMaxHP();
+		if(hp != shownHp || maxHp != shownMaxHp) {
+			shownHp = hp;
+			shownMaxHp = maxHp;
+			bar = HealthBar.get(hp, maxHp);
+			hpText = SHOW_HP_TEXT ? "HP:" + hp : null;
+		}
+		int centerX = monster.getX() + icon.getIconWidth() / 2, barY = y - 4 - HealthBar.HEIGHT;
+		frame.add(bar, centerX - HealthBar.WIDTH / 2, barY);
+		if(hpText != null) frame.addLabel(hpText, centerX, barY - 2);
+	}
+
+	public void switchType() {
+		type++;
+	}
+}
@@ -1,125 +1,164 @@
 package carrotfantasy;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import javax.sound.sampled.*;
 
+// Every effect is decoded to PCM once, on first use of any MusicModule, and played through a fixed pool of
+// Clips that stay open for the life of the program. play() never touches the disk or opens a line.
 public class MusicModule {
-	private static Clip BGMusic, select, towerBuild, towerSell, towerUpgrade, towerSelect, towerDeselect, crash, bottle, sun, lose, countDown,
-						perfect;
+	private static final Map<String, VoicePool> effects = new HashMap<>();
+	private static Clip BGMusic;
 	private static AudioInputStream BGMusicStream;
 	private static boolean BGMPlaying = false;
-	private static File selectFile, towerBuildFile, towerSellFile, towerUpgradeFile, towerSelectFile, towerDeselectFile, crashFile, bottleFile,
-						sunFile, loseFile, countDownFile, perfectFile;
-	
+	private static boolean loaded = false;
+	private static boolean silent = false;
+
 	MusicModule(){
+		load();
+	}
+
+	private static synchronized void load() {
+		if(loaded) return;
+		loaded = true;
+		// Voices per effect: rapid-fire tower sounds get several so overlapping shots still ring out
+		addEffect("select", "Music/Main/Select.wav", 2);
+		addEffect("towerBuild", "Music/Items/TowerBuild.wav", 2);
+		addEffect("towerSell", "Music/Items/TowerSell.wav", 2);
+		addEffect("towerUpgrade", "Music/Items/TowerUpgrade.wav", 2);
+		addEffect("towerSelect", "Music/Items/TowerSelect.wav", 2);
+		addEffect("towerDeselect", "Music/Items/TowerDeselect.wav", 2);
+		addEffect("crash", "Music/Items/Crash.wav", 4);
+		addEffect("bottle", "Music/Towers/Bottle.wav", 8);
+		addEffect("sun", "Music/Towers/Sun.wav", 4);
+		addEffect("lose", "Music/Items/Lose.wav", 1);
+		addEffect("countDown", "Music/Items/CountDown.wav", 2);
+		addEffect("perfect", "Music/Items/Perfect.wav", 1);
+		if(silent) return;
 		try {
 			File BGMusicFile = new File("Music/Main/BGMusic.wav");
-			selectFile = new File("Music/Main/select.wav");
-			towerBuildFile = new File("Music/Items/TowerBuild.wav");
-			towerSellFile = new File("Music/Items/TowerSell.wav");
-			towerUpgradeFile = new File("Music/Items/TowerUpgrade.wav");
-			towerSelectFile = new File("Music/Items/TowerSelect.wav");
-			towerDeselectFile = new File("Music/Items/TowerDeselect.wav");
-			crashFile = new File("Music/Items/Crash.wav");
-			bottleFile = new File("Music/Towers/Bottle.wav");
-			sunFile = new File("Music/Towers/Sun.wav");
-			loseFile = new File("Music/Items/Lose.wav");
-			countDownFile = new File("Music/Items/CountDown.wav");
-			perfectFile = new File("Music/Items/Perfect.wav");
-			BGMusicStream = AudioSystem.getAudioInputStream(BGMusicFile);
-			BGMusic = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, BGMusicStream.getFormat()));
-		} catch (UnsupportedAudioFileException e1) {
-			System.out.println("The specified audio file is not supported.");
-			e1.printStackTrace();
-		} catch (IOException e1) {
-			System.out.println("Error playing the audio file.");
-			e1.printStackTrace();
-		} catch (LineUnavailableException e) {
-			System.out.println("Audio line for playing back is unavailable.");
-			e.printStackTrace();
+			if(BGMusicFile.exists()) {
+				BGMusicStream = AudioSystem.getAudioInputStream(BGMusicFile);
+				BGMusic = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, BGMusicStream.getFormat()));
+			}
+		} catch (UnsupportedAudioFileException e) {
+			System.out.println("The specified audio file is not supported: Music/Main/BGMusic.wav");
+		} catch (IOException | LineUnavailableException | IllegalArgumentException e) {
+			System.out.println("Background music is unavailable: " + e);
 		}
 	}
 
-	public void play(String fileName) {
+	private static void addEffect(String name, String file, int voices) {
+		if(silent) return;
 		try {
-			if(fileName.equals("BGMusic") && !BGMPlaying) {
-				BGMPlaying = true;
+			effects.put(name, new VoicePool(file, voices));
+		} catch (UnsupportedAudioFileException e) {
+			System.out.println("The specified audio file is not supported: " + file);
+		} catch (IOException e) {
+			System.out.println("Error reading the audio file: " + file);
+		} catch (LineUnavailableException | IllegalArgumentException e) {
+			// No mixer, e.g. on a headless box; the game just runs silent
+			System.out.println("Audio lines are unavailable, sound effects are off: " + e);
+			silent = true;
+		}
+	}
+
+	public void play(String fileName) {
+		if(fileName.equals("BGMusic")) {
+			if(BGMPlaying || BGMusic == null) return;
+			BGMPlaying = true;
+			try {
 				BGMusic.open(BGMusicStream);
 				BGMusic.loop(50);
-			}else if(fileName.equals("select")) {
-				AudioInputStream selectStream = AudioSystem.getAudioInputStream(selectFile);
-				select = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, selectStream.getFormat()));
-				select.open(selectStream);
-				select.start();
-			}else if(fileName.equals("towerBuild")) {
-				AudioInputStream towerBuildStream = AudioSystem.getAudioInputStream(towerBuildFile);
-				towerBuild = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, towerBuildStream.getFormat()));
-				towerBuild.open(towerBuildStream);
-				towerBuild.start();
-			}else if(fileName.equals("towerSell")) {
-				AudioInputStream towerSellStream = AudioSystem.getAudioInputStream(towerSellFile);
-				towerSell = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, towerSellStream.getFormat()));
-				towerSell.open(towerSellStream);
-				towerSell.start();
-			}else if(fileName.equals("towerUpgrade")) {
-				AudioInputStream towerUpgradeStream = AudioSystem.getAudioInputStream(towerUpgradeFile);
-				towerUpgrade = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, towerUpgradeStream.getFormat()));
-				towerUpgrade.open(towerUpgradeStream);
-				towerUpgrade.start();
-			}else if(fileName.equals("crash")) {
-				AudioInputStream crashStream = AudioSystem.getAudioInputStream(crashFile);
-				crash = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, crashStream.getFormat()));
-				crash.open(crashStream);
-				crash.start();
-			}else if(fileName.equals("towerSelect")) {
-				AudioInputStream towerSelectStream = AudioSystem.getAudioInputStream(towerSelectFile);
-				towerSelect = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, towerSelectStream.getFormat()));
-				towerSelect.open(towerSelectStream);
-				towerSelect.start();
-			}else if(fileName.equals("towerDeselect")) {
-				AudioInputStream towerDeselectStream = AudioSystem.getAudioInputStream(towerDeselectFile);
-				towerDeselect = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, towerDeselectStream.getFormat()));
-				towerDeselect.open(towerDeselectStream);
-				towerDeselect.start();
-			}else if(fileName.equals("bottle")) {
-				AudioInputStream bottleStream = AudioSystem.getAudioInputStream(bottleFile);
-				bottle = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, bottleStream.getFormat()));
-				bottle.open(bottleStream);
-				bottle.start();
-			}else if(fileName.equals("sun")) {
-				AudioInputStream sunStream = AudioSystem.getAudioInputStream(sunFile);
-				sun = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, sunStream.getFormat()));
-				sun.open(sunStream);
-				sun.start();
-			}else if(fileName.equals("lose")) {
-				AudioInputStream loseStream = AudioSystem.getAudioInputStream(loseFile);
-				lose = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, loseStream.getFormat()));
-				lose.open(loseStream);
-				lose.start();
-			}else if(fileName.equals("countDown")) {
-				AudioInputStream countDownStream = AudioSystem.getAudioInputStream(countDownFile);
-				countDown = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, countDownStream.getFormat()));
-				countDown.open(countDownStream);
-				countDown.start();
-			}else if(fileName.equals("perfect")) {
-				AudioInputStream perfectStream = AudioSystem.getAudioInputStream(perfectFile);
-				perfect = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, perfectStream.getFormat()));
-				perfect.open(perfectStream);
-				perfect.start();
+			} catch (LineUnavailableException | IOException e) {
+				e.printStackTrace();
 			}
-		} catch (LineUnavailableException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		} catch (UnsupportedAudioFileException e) {
-			e.printStackTrace();
+			return;
 		}
+		VoicePool pool = effects.get(fileName);
+		if(pool != null) pool.play();
 	}
-	
+
 	public void stop(String fileName) {
-		if(fileName.equals("BGMusic")) {
+		if(fileName.equals("BGMusic") && BGMusic != null) {
 			BGMusic.stop();
 		}
 	}
-}
\ No newline at end of file
+
+	// Lines opened since startup; stays at the sum of the pool sizes however many sounds are played
+	static int getOpenLineCount() {
+		int lines = 0;
+		synchronized(MusicModule.class) {
+			for(VoicePool pool : effects.values()) {
+				lines += pool.size();
+			}
+		}
+		return lines + (BGMusic != null && BGMusic.isOpen() ? 1 : 0);
+	}
+}
+
+// A fixed set of open Clips sharing one decoded PCM buffer.
+// A play takes an idle voice if there is one, otherwise it cuts off the voice that started longest ago.
+class VoicePool {
+	private final Clip[] voices;
+	private final long[] startedAt;
+
+	VoicePool(String file, int size) throws UnsupportedAudioFileException, IOException, LineUnavailableException {
+		AudioInputStream in = AudioSystem.getAudioInputStream(new File(file));
+		AudioFormat format = in.getFormat();
+		if(format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+			format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16, format.getChannels(),
+										format.getChannels() * 2, format.getSampleRate(), false);
+			in = AudioSystem.getAudioInputStream(format, in);
+		}
+		byte[] pcm;
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while((n = in.read(buf)) > 0) {
+				out.write(buf, 0, n);
+			}
+			pcm = out.toByteArray();
+		} finally {
+			in.close();
+		}
+		voices = new Clip[size];
+		startedAt = new long[size];
+		DataLine.Info info = new DataLine.Info(Clip.class, format);
+		try {
+			for(int i = 0; i < size; i++) {
+				voices[i] = (Clip) AudioSystem.getLine(info);
+				voices[i].open(format, pcm, 0, pcm.length);
+			}
+		} catch (LineUnavailableException | IllegalArgumentException e) {
+			for(Clip clip : voices) {
+				if(clip != null) clip.close();
+			}
+			throw e;
+		}
+	}
+
+	synchronized void play() {
+		int voice = 0;
+		for(int i = 0; i < voices.length; i++) {
+			if(!voices[i].isActive()) {
+				voice = i;
+				break;
+			}
+			if(startedAt[i] < startedAt[voice]) voice = i;
+		}
+		Clip clip = voices[voice];
+		clip.stop();
+		clip.setFramePosition(0);
+		clip.start();
+		startedAt[voice] = System.nanoTime();
+	}
+
+	int size() {
+		return voices.length;
+	}
+}
@@ -0,0 +1,68 @@
+package carrotfantasy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Pause switch shared by the wave loop, every tower and the carrot.
+// While it is closed the GameLoop thread parks on it instead of ticking, so a paused game costs no CPU.
+class PauseGate {
+	// Upper bound on how long a parked loop can miss a resume signal
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	private final ReentrantLock lock;
+	private final Condition resumed;
+	private volatile boolean paused;
+	private long resumeRequestedAt;
+	private volatile long lastResumeLatencyNanos;
+	private volatile long maxResumeLatencyNanos;
+
+	PauseGate() {
+		lock = new ReentrantLock();
+		resumed = lock.newCondition();
+	}
+
+	void pause() {
+		paused = true;
+	}
+
+	void resume() {
+		lock.lock();
+		try {
+			if(paused) {
+				resumeRequestedAt = System.nanoTime();
+				paused = false;
+				resumed.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	boolean isPaused() {
+		return paused;
+	}
+
+	// Parks the calling thread until resume() is called, and records how long the wake-up took
+	void awaitResume() throws InterruptedException {
+		lock.lock();
+		try {
+			if(!paused) return;
+			while(paused) {
+				resumed.awaitNanos(MAX_PARK_NANOS);
+			}
+			long latency = System.nanoTime() - resumeRequestedAt;
+			lastResumeLatencyNanos = latency;
+			if(latency > maxResumeLatencyNanos) maxResumeLatencyNanos = latency;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long getLastResumeLatencyNanos() {
+		return lastResumeLatencyNanos;
+	}
+
+	long getMaxResumeLatencyNanos() {
+		return maxResumeLatencyNanos;
+	}
+}
@@ -0,0 +1,104 @@
+package carrotfantasy;
+
+import java.awt.Image;
+import java.util.Arrays;
+
+// Everything GameCanvas needs to draw one frame, captured on the game loop thread right after a step.
+// Sprites are listed back to front. A snapshot never changes once built, so the EDT can paint it while
+// the loop is already filling the builder for the next tick.
+final class RenderSnapshot {
+	final int spriteCount;
+	final Image[] images;
+	final int[] xs, ys;
+	final int labelCount;
+	final String[] labels;
+	final int[] labelXs, labelYs;
+	final int money, currentWave, wave;
+	final Image banner;
+
+	private RenderSnapshot(Builder b) {
+		spriteCount = b.spriteCount;
+		images = Arrays.copyOf(b.images, spriteCount);
+		xs = Arrays.copyOf(b.xs, spriteCount);
+		ys = Arrays.copyOf(b.ys, spriteCount);
+		labelCount = b.labelCount;
+		labels = Arrays.copyOf(b.labels, labelCount);
+		labelXs = Arrays.copyOf(b.labelXs, labelCount);
+		labelYs = Arrays.copyOf(b.labelYs, labelCount);
+		money = b.money;
+		currentWave = b.currentWave;
+		wave = b.wave;
+		banner = b.banner;
+	}
+
+	// Reused by MonsterThread every tick; the positioning helpers reproduce the JLabel/JButton icon alignment
+	// the entities had when each one was its own component
+	static final class Builder {
+		private int spriteCount;
+		private Image[] images = new Image[256];
+		private int[] xs = new int[256], ys = new int[256];
+		private int labelCount;
+		private String[] labels = new String[64];
+		private int[] labelXs = new int[64], labelYs = new int[64];
+		private int money, currentWave, wave;
+		private Image banner;
+
+		void reset() {
+			spriteCount = 0;
+			labelCount = 0;
+			banner = null;
+		}
+
+		void add(Image image, int x, int y) {
+			if(image == null) return;
+			if(spriteCount == images.length) {
+				images = Arrays.copyOf(images, spriteCount * 2);
+				xs = Arrays.copyOf(xs, spriteCount * 2);
+				ys = Arrays.copyOf(ys, spriteCount * 2);
+			}
+			images[spriteCount] = image;
+			xs[spriteCount] = x;
+			ys[spriteCount] = y;
+			spriteCount++;
+		}
+
+		// Icon centered in the box, like a JButton or a CENTER aligned JLabel
+		void addCentered(Image image, int x, int y, int width, int height) {
+			if(image == null) return;
+			add(image, x + (width - image.getWidth(null)) / 2, y + (height - image.getHeight(null)) / 2);
+		}
+
+		// Icon at the left edge, vertically centered, like a plain JLabel
+		void addLeft(Image image, int x, int y, int height) {
+			if(image == null) return;
+			add(image, x, y + (height - image.getHeight(null)) / 2);
+		}
+
+		// Text centered on x with its bottom edge at y
+		void addLabel(String text, int x, int y) {
+			if(labelCount == labels.length) {
+				labels = Arrays.copyOf(labels, labelCount * 2);
+				labelXs = Arrays.copyOf(labelXs, labelCount * 2);
+				labelYs = Arrays.copyOf(labelYs, labelCount * 2);
+			}
+			labels[labelCount] = text;
+			labelXs[labelCount] = x;
+			labelYs[labelCount] = y;
+			labelCount++;
+		}
+
+		void setHud(int money, int currentWave, int wave) {
+			this.money = money;
+			this.currentWave = currentWave;
+			this.wave = wave;
+		}
+
+		void setBanner(Image image) {
+			banner = image;
+		}
+
+		RenderSnapshot build() {
+			return new RenderSnapshot(this);
+		}
+	}
+}
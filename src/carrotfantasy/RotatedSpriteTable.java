@@ -0,0 +1,38 @@
+package carrotfantasy;
+
+import javax.swing.ImageIcon;
+
+// Pre-rotated copies of one sprite slice, quantized into a fixed number of angle buckets.
+// Built once up front so aiming at a target is an array lookup instead of a rotate + rescale.
+class RotatedSpriteTable {
+	static final int DEFAULT_BUCKETS = 64;
+	private static ImageReader imgReader = new ImageReader();
+	private final ImageIcon[] icons;
+
+	RotatedSpriteTable(String file, int x, int y, int width, int height, double ratio, double offset) {
+		this(file, x, y, width, height, ratio, offset, DEFAULT_BUCKETS);
+	}
+
+	RotatedSpriteTable(String file, int x, int y, int width, int height, double ratio, double offset, int buckets) {
+		icons = new ImageIcon[buckets];
+		for(int i = 0; i < buckets; i++) {
+			icons[i] = imgReader.getImageIcon(file, x, y, width, height, ratio, i * 360.0 / buckets + offset);
+		}
+	}
+
+	int bucketOf(double degrees) {
+		return Math.floorMod((int)Math.round(degrees * icons.length / 360.0), icons.length);
+	}
+
+	ImageIcon get(double degrees) {
+		return icons[bucketOf(degrees)];
+	}
+
+	ImageIcon getBucket(int bucket) {
+		return icons[bucket];
+	}
+
+	int size() {
+		return icons.length;
+	}
+}
@@ -0,0 +1,97 @@
+package carrotfantasy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+// Plays whole games headless with a simple greedy build policy, for balance checks and tuning runs.
+// Usage: SimulationRunner [mode 0-2] [games]
+public class SimulationRunner {
+	private static final long TICK = GameLoop.TICK_MILLIS;
+	private final int mode;
+	private final int[] rankedCells;
+
+	SimulationRunner(int m) {
+		mode = m;
+		rankedCells = rankCells(m);
+	}
+
+	// Orders the buildable cells by how many samples of the monster route a level 1 bottle would cover
+	static int[] rankCells(int mode) {
+		List<int[]> route = traceRoute(mode);
+		HashSet<Integer> block = MapLayout.blockedCells(mode);
+		List<int[]> scored = new ArrayList<>();
+		int range = new TBottleModel(0, 0).range;
+		for(int cell = 0; cell < MapLayout.CELLS; cell++) {
+			if(block.contains(cell)) continue;
+			int cx = MapLayout.cellX(cell) + 40, cy = MapLayout.cellY(cell) + 40;
+			int covered = 0;
+			for(int[] p : route) {
+				int dx = p[0] - cx, dy = p[1] - cy;
+				if(dx * dx + dy * dy <= range * range) covered++;
+			}
+			scored.add(new int[] {cell, covered});
+		}
+		scored.sort((a, b) -> b[1] - a[1]);
+		int[] cells = new int[scored.size()];
+		for(int i = 0; i < cells.length; i++) {
+			cells[i] = scored.get(i)[0];
+		}
+		return cells;
+	}
+
+	// Follows the first monster of an undefended game from spawn to the carrot
+	static List<int[]> traceRoute(int mode) {
+		GameSimulation sim = new GameSimulation(mode);
+		Monster first = sim.getMonsters()[0];
+		List<int[]> route = new ArrayList<>();
+		while(!first.isReached() && !sim.isOver()) {
+			sim.step(TICK);
+			if(first.isOnField()) {
+				route.add(new int[] {first.getX() + MonsterGrid.CENTER_X, first.getY() + MonsterGrid.CENTER_Y});
+			}
+		}
+		return route;
+	}
+
+	GameSimulation play() {
+		GameSimulation sim = new GameSimulation(mode);
+		Economy economy = sim.getEconomy();
+		List<TowerModel> built = new ArrayList<>();
+		int next = 0;
+		while(!sim.isOver()) {
+			if(next < rankedCells.length && economy.debit(100)) {
+				int cell = rankedCells[next++];
+				TowerModel tower = new TBottleModel(MapLayout.cellX(cell), MapLayout.cellY(cell));
+				sim.addTower(tower);
+				built.add(tower);
+			}else {
+				for(TowerModel tower : built) {
+					if(tower.level < 3 && economy.debit(tower.upgradePrice)) {
+						tower.upgrade();
+					}
+				}
+			}
+			sim.step(TICK);
+		}
+		return sim;
+	}
+
+	public static void main(String[] args) {
+		int mode = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		SimulationRunner runner = new SimulationRunner(mode);
+		int won = 0;
+		long start = System.nanoTime();
+		for(int i = 0; i < games; i++) {
+			GameSimulation sim = runner.play();
+			if(sim.isVictory()) won++;
+			if(i < 5) {
+				System.out.println("game " + i + ": " + (sim.isVictory() ? "won" : "lost") + " at wave " + Math.min(sim.getCurrentWave(), sim.getWave()) + "/" + sim.getWave() +
+									", carrot HP " + sim.getCarrot().getHP() + ", towers " + sim.getTowers().size());
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("mode %d: won %d of %d games in %.2f s (%.0f games/min)%n", mode, won, games, seconds, games / seconds * 60);
+	}
+}
@@ -0,0 +1,113 @@
+package carrotfantasy;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+// Process-wide cache of decoded sprite sheets, keyed by normalized absolute path.
+// Every icon is a getSubimage slice of one of these, so each PNG is inflated once per process.
+// A sheet is decoded outside the map's locks, so AssetPreloader's workers can decode several at once;
+// a thread asking for a sheet that is still being decoded waits for that decode instead of starting another.
+class SpriteSheetCache {
+	private static final ConcurrentHashMap<String, FutureTask<BufferedImage>> sheets = new ConcurrentHashMap<>();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong bytesResident = new AtomicLong();
+
+	private SpriteSheetCache() {}
+
+	// Returns the decoded sheet, or null if ImageIO cannot decode the file
+	static BufferedImage getSheet(String file) throws IOException {
+		String key = keyOf(file);
+		FutureTask<BufferedImage> sheet = sheets.get(key);
+		if(sheet == null) {
+			FutureTask<BufferedImage> decode = new FutureTask<>(() -> {
+				BufferedImage img = ImageIO.read(new File(key));
+				if(img != null) bytesResident.addAndGet(sizeOf(img));
+				return img;
+			});
+			sheet = sheets.putIfAbsent(key, decode);
+			if(sheet == null) {
+				misses.incrementAndGet();
+				decode.run();
+				return await(key, decode);
+			}
+		}
+		// Decoded already, or another thread is decoding it right now
+		hits.incrementAndGet();
+		return await(key, sheet);
+	}
+
+	private static BufferedImage await(String key, FutureTask<BufferedImage> sheet) throws IOException {
+		try {
+			return sheet.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while " + key + " was decoded", e);
+		} catch (ExecutionException e) {
+			// Forgotten, so the next call tries the file again
+			sheets.remove(key, sheet);
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException)cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException)cause;
+			if(cause instanceof Error) throw (Error)cause;
+			throw new IOException(cause);
+		}
+	}
+
+	static String keyOf(String file) {
+		File imageFile = ImageReader.getImageFile(file);
+		return imageFile.getAbsoluteFile().toPath().normalize().toString().replace('\\', '/');
+	}
+
+	static long sizeOf(BufferedImage img) {
+		DataBuffer buffer = img.getRaster().getDataBuffer();
+		return (long)buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+	}
+
+	// Forgets one sheet, waiting for it if it is still being decoded; it is decoded again if asked for later
+	static void release(String file) {
+		String key = keyOf(file);
+		FutureTask<BufferedImage> sheet = sheets.remove(key);
+		if(sheet == null) return;
+		try {
+			BufferedImage img = await(key, sheet);
+			if(img != null) bytesResident.addAndGet(-sizeOf(img));
+		} catch (IOException e) {
+			// Never decoded, so never counted
+		}
+	}
+
+	static void clear() {
+		sheets.clear();
+		bytesResident.set(0);
+	}
+
+	static long getHits() {
+		return hits.get();
+	}
+
+	static long getMisses() {
+		return misses.get();
+	}
+
+	static long getBytesResident() {
+		return bytesResident.get();
+	}
+
+	static int getSheetCount() {
+		return sheets.size();
+	}
+
+	static String getStatsSummary() {
+		return "sheets=" + getSheetCount() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", resident=" + (getBytesResident() / 1024) + " KiB";
+	}
+}
@@ -1,144 +1,153 @@
 package carrotfantasy;
 
-import javax.swing.BorderFactory;
+import java.awt.Image;
 import javax.swing.ImageIcon;
-import javax.swing.JButton;
-import javax.swing.JLabel;
-
-import java.awt.Color;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.math.*;
 
 public class TBottle extends Tower{
-	private JButton bottle1;
-	private JButton bottle2;
-	private JButton cell;
+	private int x, y;
 	private static ImageReader imgReader = new ImageReader();
 	private static ImageIcon texture1 = imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 2, 264, 60, 60, 1, false);
-	private static ImageIcon texture2 = imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 15, 462, 56, 26, 1, true);
-	private Monster[] monsters;
-	private boolean ready;
-
-	TBottle(int x, int y, Monster[] m, int mn, JButton c){
-		this.power = 20;
-		this.price = 100;
-		this.upgradePrice = 180;
-		this.level = 1;
-		this.range = 200;
-		this.cd = 300;
-		this.monsters = m;
-		this.xPos = x + 40;
-		this.yPos = y + 40;
-		this.monsterNum = mn;
-		this.ready = true;
-		this.cell = c;
-		this.isInterrupted = false;
-		this.setBounds(x - 360, y - 360, 800, 800);
-		bottle1 = new JButton();
-		bottle1.setBounds(360, 360, 80, 80);
-		bottle1.setIcon(texture1);
-		bottle1.setBorder(null);
-		bottle1.setFocusPainted(false);
-		bottle1.setContentAreaFilled(false);
-		bottle2 = new JButton();
-		bottle2.setBorder(null);
-		bottle2.setFocusPainted(false);
-		bottle2.setContentAreaFilled(false);
-		bottle2.setBounds(360, 360, 80, 80);
-		bottle2.setIcon(texture2);
-		bottle2.addActionListener(new BottleActionListener(cell));
-		this.add(bottle1, Integer.valueOf(-30001));
-		this.add(bottle2, Integer.valueOf(-30000));
-		this.setVisible(true);
-	}
-
-	public void upgrade() {
-		level++;
-		power += 10;
-		cd -= 50;
-		price += 80;
-		upgradePrice += 80;
-		range += 80;
-		switch(level) {
-		case 2:
-			bottle2.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 2, 356, 64, 36, 1, true));
-			break;
-		case 3:
-			bottle2.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 8, 132, 46, 70, 1, -180));
-			break;
-		}
+	private static RotatedSpriteTable[] levelTables = {
+		new RotatedSpriteTable("Images/Towers\\TBottle-hd.png", 15, 462, 56, 26, 1, 0),
+		new RotatedSpriteTable("Images/Towers\\TBottle-hd.png", 2, 356, 64, 36, 1, 0),
+		new RotatedSpriteTable("Images/Towers\\TBottle-hd.png", 8, 132, 46, 70, 1, -90),
+	};
+	private static RotatedSpriteTable bulletTable = new RotatedSpriteTable("Images/Towers\\TBottle-hd.png", 2, 2, 50, 26, 1, 0);
+	// Shared by every bottle on the board: 72 level 3 bottles keep at most two shots each in the air
+	static final BulletPool bullets = new BulletPool(192);
+	private TBottleModel bottle;
+	private int aimBucket;
+	private int shownShots;
+
+	TBottle(int x, int y){
+		this.bottle = new TBottleModel(x, y);
+		this.model = bottle;
+		this.x = x;
+		this.y = y;
+		aimBucket = levelTables[0].bucketOf(-90);
 	}
 
-	public void run() {
-		long lastTime = System.currentTimeMillis();
-		while(true) {
-			while(paused) {
-				lastTime = System.currentTimeMillis();
-				if(!paused  || isInterrupted) break;
+	public void sync(long deltaTime, RenderSnapshot.Builder frame) {
+		if(bottle.isActive()) {
+			aimBucket = levelTables[bottle.level - 1].bucketOf(bottle.getAim());
+			if(bottle.getShots() != shownShots) {
+				shownShots = bottle.getShots();
+				musicModule.play("bottle");
+				bullets.fire(x - 360, y - 360, 400 + bottle.getShotDeltaX(), 400 + bottle.getShotDeltaY(), bottle.getAim(),
+								bulletTable.get(bottle.getAim()).getImage());
 			}
-			if(this.isInterrupted) break;
-			if(sold) {
-				break;
-			}
-			if(System.currentTimeMillis() - lastTime > this.cd) {
-				lastTime = System.currentTimeMillis();
-				this.ready = true; 
+		}
+		frame.addCentered(texture1.getImage(), x, y, 80, 80);
+		frame.addCentered(levelTables[bottle.level - 1].getBucket(aimBucket).getImage(), x, y, 80, 80);
+	}
+}
+
+// Fixed set of Bullets reused across shots and towers. Only the game loop thread fires, moves and
+// recycles them; the counters are read from anywhere for reporting.
+class BulletPool {
+	private final Bullet[] active;
+	private final Bullet[] free;
+	private int activeCount, freeCount;
+	private volatile boolean clearRequested;
+	private volatile int peak;
+	private volatile long fired, dropped;
+
+	BulletPool(int capacity) {
+		active = new Bullet[capacity];
+		free = new Bullet[capacity];
+		for(int i = 0; i < capacity; i++) {
+			free[i] = new Bullet();
+		}
+		freeCount = capacity;
+	}
+
+	// Takes a free bullet for the shot; with none left the shot still lands, it is just not drawn
+	void fire(int originX, int originY, int gx, int gy, double or, Image img) {
+		if(freeCount == 0) {
+			dropped++;
+			return;
+		}
+		Bullet bullet = free[--freeCount];
+		free[freeCount] = null;
+		bullet.init(originX, originY, gx, gy, or, img);
+		active[activeCount++] = bullet;
+		if(activeCount > peak) peak = activeCount;
+		fired++;
+	}
+
+	// Moves every bullet in flight, recycles the ones that reached their goal and adds the rest to the frame
+	void update(long deltaTime, RenderSnapshot.Builder frame) {
+		if(clearRequested) {
+			clearRequested = false;
+			while(activeCount > 0) {
+				recycle(active[--activeCount]);
+				active[activeCount] = null;
 			}
-			for(int i = 0; i < monsterNum; i++) {
-				if(monsters[i].reached || !monsters[i].alive || !monsters[i].born) {
-					continue;
-				}
-				if(Math.sqrt(Math.pow(monsters[i].xPos + 50 - this.xPos, 2) + Math.pow(monsters[i].yPos + 55 - this.yPos, 2)) <= this.range){
-					int deltaY = monsters[i].yPos + 55 - this.yPos;
-					int deltaX = monsters[i].xPos + 50 - this.xPos;
-					double orient = Math.toDegrees(Math.atan((double)deltaY / deltaX));
-					if(deltaX < 0) orient += 180;
-					if(deltaX == 0 && deltaY > 0) orient = 90;
-					else if(deltaX == 0 && deltaY < 0) orient = -90;
-					else if(deltaY == 0 && deltaX > 0) orient = 0; 
-					else if(deltaY == 0 && deltaX < 0) orient = 180; 
-					
-					switch(level) {
-					case 1:
-						bottle2.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 15, 462, 56, 26, 1, orient));
-						break;
-					case 2:
-						bottle2.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 2, 356, 64, 36, 1, orient));
-						break;
-					case 3:
-						bottle2.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 8, 132, 46, 70, 1, orient - 90));
-						break;
-					}
-					if(this.ready) {
-						musicModule.play("bottle");
-						Bullet bullet = new Bullet(400 + deltaX, 400 + deltaY, orient);
-						bullet.setIcon(imgReader.getImageIcon("Images/Towers\\TBottle-hd.png", 2, 2, 50, 26, 1, orient));
-						this.add(bullet);
-						new Thread(bullet).start();
-						this.ready = false;
-						try {
-							Thread.sleep(100);
-						}catch(Exception e) {}
-						monsters[i].HP -= this.power;
-					}
-					break;
-				}
+		}
+		for(int i = activeCount - 1; i >= 0; i--) {
+			Bullet bullet = active[i];
+			if(!bullet.update(deltaTime)) {
+				active[i] = active[--activeCount];
+				active[activeCount] = null;
+				recycle(bullet);
+				continue;
 			}
-			try {
-				Thread.sleep(20);
-			}catch(Exception e) {}
+			frame.addLeft(bullet.image, bullet.getX(), bullet.getY(), 50);
 		}
 	}
+
+	// A new game is starting: the bullets still in flight are recycled on the loop thread's next update
+	void clear() {
+		clearRequested = true;
+		peak = 0;
+		fired = 0;
+		dropped = 0;
+	}
+
+	private void recycle(Bullet bullet) {
+		bullet.image = null;
+		free[freeCount++] = bullet;
+	}
+
+	int getCapacity() {
+		return free.length;
+	}
+
+	int getInUse() {
+		return free.length - freeCount;
+	}
+
+	int getPeak() {
+		return peak;
+	}
+
+	long getFired() {
+		return fired;
+	}
+
+	long getDropped() {
+		return dropped;
+	}
+
+	String getStatsSummary() {
+		return "in use=" + getInUse() + "/" + getCapacity() + ", peak=" + peak + ", fired=" + fired + ", dropped=" + dropped;
+	}
 }
 
-class Bullet extends JLabel implements Runnable{
+// Flight position is kept relative to an 800x800 box centered on the firing tower, where the tower's
+// cell starts at (360, 360); origin is that box's corner on the board
+class Bullet {
+	Image image;
+	private int originX, originY;
 	private int goalX, goalY;
 	private double xPos, yPos;
 	private double speed;
 	private double cos, sin;
 
-	Bullet(int gx, int gy, double or){
+	void init(int ox, int oy, int gx, int gy, double or, Image img){
+		image = img;
+		originX = ox;
+		originY = oy;
 		cos = Math.cos(Math.toRadians(or));
 		sin = Math.sin(Math.toRadians(or));
 		xPos = 375 + 45 * cos;
@@ -148,43 +157,28 @@ class Bullet extends JLabel implements Runnable{
 		speed = 1;
 	}
 
-	public void run() {
-		long currentTime, deltaTime;
-		this.setBounds((int)xPos, (int)yPos, 50, 50);
-		long lastTime = System.currentTimeMillis();
-		while(true) {
-			currentTime = System.currentTimeMillis();
-			deltaTime = currentTime - lastTime;
-			xPos += deltaTime * speed * cos;
-			yPos += deltaTime * speed * sin;
-			if((goalX < 400 && xPos + 25 < goalX && goalY < 400 && yPos + 25 < goalY) ||
-				(goalX > 400 && xPos + 25 > goalX && goalY < 400 && yPos + 25 < goalY) ||
-				(goalX < 400 && xPos + 25 < goalX && goalY > 400 && yPos + 25 > goalY) ||
-				(goalX > 400 && xPos + 25 > goalX && goalY > 400 && yPos + 25 > goalY) ||
-				(goalX == 400 && goalY < 400 && yPos + 25 < goalY) ||
-				(goalX == 400 && goalY > 400 && yPos + 25 > goalY) ||
-				(goalY == 400 && goalX < 400 && xPos + 25 < goalX) ||
-				(goalY == 400 && goalX > 400 && xPos + 25 > goalX)){
-				this.setVisible(false);
-				break;
-			}
-			this.setBounds((int)xPos, (int)yPos, 50, 50);
-			lastTime = currentTime;
-			try {
-				Thread.sleep(2);
-			}catch(Exception e) {}
+	// Moves the bullet on; false once it has passed its goal
+	boolean update(long deltaTime) {
+		xPos += deltaTime * speed * cos;
+		yPos += deltaTime * speed * sin;
+		if((goalX < 400 && xPos + 25 < goalX && goalY < 400 && yPos + 25 < goalY) ||
+			(goalX > 400 && xPos + 25 > goalX && goalY < 400 && yPos + 25 < goalY) ||
+			(goalX < 400 && xPos + 25 < goalX && goalY > 400 && yPos + 25 > goalY) ||
+			(goalX > 400 && xPos + 25 > goalX && goalY > 400 && yPos + 25 > goalY) ||
+			(goalX == 400 && goalY < 400 && yPos + 25 < goalY) ||
+			(goalX == 400 && goalY > 400 && yPos + 25 > goalY) ||
+			(goalY == 400 && goalX < 400 && xPos + 25 < goalX) ||
+			(goalY == 400 && goalX > 400 && xPos + 25 > goalX)){
+			return false;
 		}
+		return true;
 	}
-}
 
-class BottleActionListener implements ActionListener{
-	private JButton cell;
-
-	BottleActionListener(JButton c){
-		cell = c;
+	int getX() {
+		return originX + (int)xPos;
 	}
 
-	public void actionPerformed(ActionEvent e) {
-		cell.doClick();
+	int getY() {
+		return originY + (int)yPos;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,382 @@
+package carrotfantasy;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+
+// The icons ImageReader cuts, rotates and scales, kept on disk as raw ARGB so a later launch reads them
+// straight back in instead of inflating the PNG sheets again. Each sheet gets a directory named after a
+// hash of its path, holding a stamp of the sheet's size and modification time; the first time a run asks
+// for a sheet whose stamp no longer matches, the directory is emptied, so an edited PNG is never served
+// stale. Every slice is one file named after a hash of the sheet, rectangle, ratio and rotation, and it
+// repeats that key in its header so a hash collision reads as a miss.
+//
+// A slice is read from disk at most once per run and then served from memory until its sheet is released.
+// The event and loop threads never touch the disk here: they only see slices already in memory, which
+// AssetPreloader reads in for every warm sheet of a level. The directory is kept under a size limit by
+// deleting the slices used longest ago, and directories of sheets that changed or went away are removed.
+final class TextureCache {
+	// -Dcarrotfantasy.textureCache=<dir> moves the cache; =off turns it off
+	private static final String SETTING = System.getProperty("carrotfantasy.textureCache",
+									Paths.get(System.getProperty("user.home"), ".carrotfantasy", "textures").toString());
+	private static final Path ROOT = SETTING.equals("off") ? null : Paths.get(SETTING);
+	// -Dcarrotfantasy.textureCacheLimit=<MiB> caps the directory, 256 MiB by default
+	private static final long LIMIT = Long.getLong("carrotfantasy.textureCacheLimit", 256) * 1024 * 1024;
+	private static final int MAGIC = 0x43465458, VERSION = 1;
+	// Keyed by the sheet name as the game spells it, so a lookup needs no file system call
+	private static final ConcurrentHashMap<String, SheetDir> dirs = new ConcurrentHashMap<>();
+	// Files are written, touched and pruned off the calling thread
+	private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "texture-cache-writer");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong written = new AtomicLong();
+	private static final AtomicLong bytesRead = new AtomicLong();
+	private static final AtomicLong bytesOnDisk = new AtomicLong();
+	private static final AtomicBoolean pruneQueued = new AtomicBoolean();
+
+	static {
+		if(ROOT != null) schedulePrune();
+	}
+
+	private TextureCache() {}
+
+	// The part of the key that names the slice within its sheet
+	static String sliceKey(int x, int y, int width, int height, double ratio, String rotation) {
+		return x + "," + y + "," + width + "," + height + "@" + ratio + "/" + rotation;
+	}
+
+	// The slice as saved by this or an earlier run, or null
+	static BufferedImage get(String sheet, String slice) {
+		if(ROOT == null) return null;
+		SheetDir dir = dirOf(sheet);
+		if(dir == null) return null;
+		BufferedImage image = dir.slices.get(slice);
+		if(image != null) {
+			hits.incrementAndGet();
+			return image;
+		}
+		if(!mayBlock()) {
+			misses.incrementAndGet();
+			return null;
+		}
+		Path file = dir.path.resolve(hash(dir.key + "|" + slice) + ".argb");
+		image = read(dir, file, slice);
+		if(image == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		BufferedImage raced = dir.slices.putIfAbsent(slice, image);
+		return raced != null ? raced : image;
+	}
+
+	// Keeps a freshly cut slice for the rest of the run, and saves it for the next one in the background
+	static void put(String sheet, String slice, Image image) {
+		if(ROOT == null) return;
+		int width = image.getWidth(null), height = image.getHeight(null);
+		if(width <= 0 || height <= 0) return;
+		SheetDir dir = dirOf(sheet);
+		if(dir != null && image instanceof BufferedImage) dir.slices.putIfAbsent(slice, (BufferedImage)image);
+		writer.execute(() -> {
+			SheetDir target = open(sheet);
+			if(target != null) write(target, target.key + "|" + slice, image, width, height);
+		});
+	}
+
+	// Whether an earlier run left slices of this sheet that are still valid, so decoding it can wait
+	// until a slice that is not on disk is asked for
+	static boolean isWarm(String sheet) {
+		if(ROOT == null || !mayBlock()) return false;
+		SheetDir dir = open(sheet);
+		return dir != null && dir.warm;
+	}
+
+	// Reads every saved slice of a warm sheet into memory; called by AssetPreloader's workers, so the
+	// event and loop threads find them there later
+	static int load(String sheet) {
+		if(ROOT == null) return 0;
+		SheetDir dir = open(sheet);
+		if(dir == null) return 0;
+		int loaded = 0;
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(dir.path, "*.argb")) {
+			for(Path file : files) {
+				if(read(dir, file, null) != null) loaded++;
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot list textures in " + dir.path + ": " + e);
+		}
+		return loaded;
+	}
+
+	// Drops a sheet's slices from memory; the files stay for the next time it is needed
+	static void release(String sheet) {
+		SheetDir dir = dirs.get(normalize(sheet));
+		if(dir != null) dir.slices.clear();
+	}
+
+	// Reads one slice file. With a slice name, only that slice is accepted; without one, whatever slice of
+	// this sheet the file holds is remembered under its own name.
+	private static BufferedImage read(SheetDir dir, Path file, String slice) {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE) throw new IOException("texture file too large");
+			ByteBuffer in = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+			while(in.hasRemaining() && channel.read(in) >= 0);
+			in.flip();
+			if(in.getInt() != MAGIC || in.getInt() != VERSION) throw new IOException("not a texture file");
+			byte[] stored = new byte[in.getInt()];
+			in.get(stored);
+			String key = new String(stored, StandardCharsets.UTF_8);
+			String prefix = dir.key + "|";
+			// Another slice, or a stranger, whose key hashed the same; it keeps the file
+			if(!key.startsWith(prefix) || (slice != null && !key.equals(prefix + slice))) return null;
+			int width = in.getInt(), height = in.getInt();
+			if(in.remaining() != width * height * 4) throw new IOException("truncated texture file");
+			BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			in.asIntBuffer().get(((DataBufferInt)image.getRaster().getDataBuffer()).getData());
+			bytesRead.addAndGet(size);
+			touch(file);
+			image = ImageReader.toScreenFormat(image);
+			if(slice == null) dir.slices.putIfAbsent(key.substring(prefix.length()), image);
+			return image;
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException ignored) {}
+			return null;
+		}
+	}
+
+	private static void write(SheetDir dir, String key, Image image, int width, int height) {
+		BufferedImage argb = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = argb.createGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		int[] pixels = ((DataBufferInt)argb.getRaster().getDataBuffer()).getData();
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer out = ByteBuffer.allocate(20 + keyBytes.length + pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+		out.putInt(MAGIC).putInt(VERSION).putInt(keyBytes.length).put(keyBytes).putInt(width).putInt(height);
+		out.asIntBuffer().put(pixels);
+		out.position(out.capacity()).flip();
+		Path file = dir.path.resolve(hash(key) + ".argb");
+		Path temp = dir.path.resolve(hash(key) + ".tmp");
+		try {
+			Files.createDirectories(dir.path);
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while(out.hasRemaining()) {
+					channel.write(out);
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			written.incrementAndGet();
+			if(bytesOnDisk.addAndGet(out.capacity()) > LIMIT) schedulePrune();
+		} catch (IOException e) {
+			System.err.println("Cannot save texture to " + file + ": " + e);
+		}
+	}
+
+	// Marks a slice as just used, so pruning takes the ones used longest ago first
+	private static void touch(Path file) {
+		writer.execute(() -> {
+			try {
+				Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			} catch (IOException ignored) {}
+		});
+	}
+
+	private static void schedulePrune() {
+		if(pruneQueued.compareAndSet(false, true)) writer.execute(TextureCache::prune);
+	}
+
+	// Removes directories whose sheet changed or went away, then the least recently used slices until the
+	// cache is back under three quarters of its limit. Runs on the writer thread.
+	private static void prune() {
+		pruneQueued.set(false);
+		if(!Files.isDirectory(ROOT)) return;
+		List<Path> slices = new ArrayList<>();
+		long total = 0;
+		try(DirectoryStream<Path> sheets = Files.newDirectoryStream(ROOT)) {
+			for(Path path : sheets) {
+				if(!Files.isDirectory(path)) continue;
+				synchronized(TextureCache.class) {
+					if(!isOpen(path) && !stampMatches(path)) {
+						deleteTree(path);
+						continue;
+					}
+				}
+				try(DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.argb")) {
+					for(Path file : files) {
+						slices.add(file);
+						total += Files.size(file);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot prune texture cache " + ROOT + ": " + e);
+			return;
+		}
+		if(total > LIMIT) {
+			slices.sort(Comparator.comparingLong(TextureCache::lastModified));
+			for(int i = 0; i < slices.size() && total > LIMIT / 4 * 3; i++) {
+				try {
+					long size = Files.size(slices.get(i));
+					Files.delete(slices.get(i));
+					total -= size;
+				} catch (IOException ignored) {}
+			}
+		}
+		bytesOnDisk.set(total);
+	}
+
+	private static boolean isOpen(Path path) {
+		for(SheetDir dir : dirs.values()) {
+			if(path.equals(dir.path)) return true;
+		}
+		return false;
+	}
+
+	// Whether the directory's stamp still describes the sheet it names
+	private static boolean stampMatches(Path path) {
+		try {
+			String[] stamp = new String(Files.readAllBytes(path.resolve("stamp")), StandardCharsets.UTF_8).split("\n");
+			if(stamp.length < 3) return false;
+			Path source = Paths.get(stamp[0]);
+			return Files.isRegularFile(source) && Long.parseLong(stamp[1]) == Files.size(source)
+					&& Long.parseLong(stamp[2]) == Files.getLastModifiedTime(source).toMillis();
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	private static long lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private static void deleteTree(Path path) {
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+			for(Path file : files) {
+				Files.deleteIfExists(file);
+			}
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			System.err.println("Cannot remove stale textures in " + path + ": " + e);
+		}
+	}
+
+	// The event and loop threads only get what is already in memory
+	private static boolean mayBlock() {
+		return !SwingUtilities.isEventDispatchThread() && !GameLoop.getInstance().isLoopThread();
+	}
+
+	private static String normalize(String sheet) {
+		return sheet.replace('\\', '/');
+	}
+
+	// The sheet's directory if this run has already opened it; opening it first where the thread may block.
+	// Null if the sheet or the cache directory is unusable.
+	private static SheetDir dirOf(String sheet) {
+		SheetDir dir = dirs.get(normalize(sheet));
+		if(dir == null && mayBlock()) dir = open(sheet);
+		return dir == null || dir.path == null ? null : dir;
+	}
+
+	// Checks the sheet's stamp once per run
+	private static SheetDir open(String sheet) {
+		SheetDir dir = dirs.computeIfAbsent(normalize(sheet), name -> create(SpriteSheetCache.keyOf(sheet)));
+		return dir.path == null ? null : dir;
+	}
+
+	// Locked against prune, which would otherwise take a directory whose stamp is being rewritten for stale
+	private static synchronized SheetDir create(String key) {
+		Path source = Paths.get(key);
+		Path path = ROOT.resolve(hash(key));
+		try {
+			String stamp = key + "\n" + Files.size(source) + "\n" + Files.getLastModifiedTime(source).toMillis() + "\n";
+			Files.createDirectories(path);
+			Path stampFile = path.resolve("stamp");
+			boolean valid = Files.isRegularFile(stampFile) && stamp.equals(new String(Files.readAllBytes(stampFile), StandardCharsets.UTF_8));
+			boolean warm = false;
+			try(DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.argb")) {
+				for(Path file : files) {
+					if(valid) {
+						warm = true;
+						break;
+					}
+					Files.deleteIfExists(file);
+				}
+			}
+			if(!valid) Files.write(stampFile, stamp.getBytes(StandardCharsets.UTF_8));
+			return new SheetDir(key, path, warm);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Texture cache disabled for " + key + ": " + e);
+			return new SheetDir(key, null, false);
+		}
+	}
+
+	// 64-bit FNV-1a of the key in hex
+	private static String hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return String.format("%016x", hash);
+	}
+
+	static String getStatsSummary() {
+		if(ROOT == null) return "texture cache off";
+		return "textures cached=" + hits.get() + ", cut=" + misses.get() + ", saved=" + written.get()
+				+ ", read=" + (bytesRead.get() / 1024) + " KiB, on disk=" + (bytesOnDisk.get() / 1024) + " KiB";
+	}
+
+	private static final class SheetDir {
+		final String key;
+		final Path path;
+		final boolean warm;
+		// Slices already read or cut this run, by slice key
+		final ConcurrentHashMap<String, BufferedImage> slices = new ConcurrentHashMap<>();
+
+		SheetDir(String key, Path path, boolean warm) {
+			this.key = key;
+			this.path = path;
+			this.warm = warm;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package carrotfantasy;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Set;
+import javax.swing.ImageIcon;
+
+// The images that belong to one level's theme: its sprite sheets, the flattened scenery, the monster walk
+// frames and the sunflower's upgrade frames. Only one theme is open at a time. GamePanel opens its level's theme when it starts and closes it when
+// it is disposed, and opening another level closes whatever theme is still open, so a long session holds the
+// decoded images of the map on screen rather than of every map played. The sheets every level uses
+// (AssetPreloader's shared list) are not part of any theme and stay loaded.
+final class ThemeAssets {
+	private static ThemeAssets current;
+	private final Level level;
+	private final Set<String> sheets;
+	private BufferedImage scenery;
+	private ImageIcon[] monsterFrames;
+	private ImageIcon[][] sunFlowerUpgrades;
+	private boolean closed;
+
+	private ThemeAssets(Level level) {
+		this.level = level;
+		this.sheets = level.sheets();
+	}
+
+	// The open theme of this level, opening it (and closing another level's) if needed
+	static synchronized ThemeAssets of(Level level) {
+		if(current != null && current.level == level) return current;
+		if(current != null) current.release(level.sheets());
+		current = new ThemeAssets(level);
+		return current;
+	}
+
+	// The theme open right now, or null
+	static synchronized ThemeAssets open() {
+		return current;
+	}
+
+	// Null until the level's scenery has been composed
+	synchronized BufferedImage getScenery() {
+		return scenery;
+	}
+
+	synchronized void setScenery(BufferedImage image) {
+		if(!closed) scenery = image;
+	}
+
+	// Walk cycle frames of the level's monster, cut on first use and shared by every MonsterView
+	synchronized ImageIcon[] getMonsterFrames() {
+		if(monsterFrames != null) return monsterFrames;
+		Sprite[] frames = level.monsterFrames;
+		ImageIcon[] loaded = new ImageIcon[frames.length];
+		for(int i = 0; i < frames.length; i++) {
+			loaded[i] = frames[i].load();
+		}
+		if(!closed) monsterFrames = loaded;
+		return loaded;
+	}
+
+	// TSunFlower's level 2 and 3 frames, cut once per theme (AssetPreloader does it while the level loads)
+	// rather than kept for the whole session
+	synchronized ImageIcon[][] getSunFlowerUpgrades() {
+		if(sunFlowerUpgrades != null) return sunFlowerUpgrades;
+		ImageIcon[][] loaded = TSunFlower.cutUpgrades();
+		if(!closed) sunFlowerUpgrades = loaded;
+		return loaded;
+	}
+
+	// Drops the theme's images; the sheets are decoded again if a later level needs them
+	void close() {
+		synchronized(ThemeAssets.class) {
+			release(Collections.<String>emptySet());
+		}
+	}
+
+	// Caller holds the class lock. Sheets the next theme also uses are kept.
+	private synchronized void release(Set<String> keep) {
+		if(closed) return;
+		closed = true;
+		scenery = null;
+		monsterFrames = null;
+		sunFlowerUpgrades = null;
+		for(String sheet : sheets) {
+			if(keep.contains(sheet)) continue;
+			ImageFlyweightFactory.release(sheet);
+			TextureCache.release(sheet);
+		}
+		if(current == this) current = null;
+	}
+}
@@ -1,59 +1,57 @@
 package carrotfantasy;
 
-import javax.swing.JLayeredPane;
-
 // Refactored with Visitor Pattern Integration
-public abstract class Tower extends JLayeredPane implements Runnable, Visitable{
-	protected int power;
-	protected int range;
-	protected int price, upgradePrice;
-	protected int level;
-	protected int cd;
-	protected int xPos, yPos;
-	protected int monsterNum;
-	protected boolean attacking;
-	protected boolean paused, sold, isInterrupted;
+// Draws a TowerModel; the simulation owns the stats and does the targeting
+public abstract class Tower implements Visitable{
+	protected TowerModel model;
 	protected static MusicModule musicModule = new MusicModule();
 
-	public abstract void run();
+	// Catches up with the model's latest state and adds the tower to the frame; called from the wave loop after each step
+	public abstract void sync(long deltaTime, RenderSnapshot.Builder frame);
 
+	// Pausing goes through the gate shared with the wave loop and carrot, so it stops the whole board
 	public void pause() {
-		paused = true;
+		GameLoop.getInstance().getPauseGate().pause();
 	}
 
 	public void myResume() {
-		paused = false;
-	}
-
-	public void sell() {
-		sold = true;
+		GameLoop.getInstance().getPauseGate().resume();
 	}
 
 	public void interrupt() {
-		this.setVisible(false);
-		isInterrupted = true;
+		model.stop();
 	}
 
 	public void gameOver() {
-		isInterrupted = true;
+		model.stop();
+	}
+
+	TowerModel getModel() {
+		return model;
 	}
 
 	public int getLevel() {
-		return this.level;
+		return model.level;
+	}
+
+	public int getPower() {
+		return model.power;
+	}
+
+	public int getRange() {
+		return model.range;
 	}
 
 	public int getPrice() {
-		return this.price;
+		return model.price;
 	}
 
 	public int getUpgradePrice() {
-		return this.upgradePrice;
+		return model.upgradePrice;
 	}
-	
-	public abstract void upgrade();
 
     // Refactored with Visitor Pattern Integration
     public void accept(GameVisitor visitor) {
         visitor.visit(this);
     }
-}
\ No newline at end of file
+}
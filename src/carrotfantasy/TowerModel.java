@@ -0,0 +1,249 @@
+package carrotfantasy;
+
+import java.nio.ByteBuffer;
+
+// Plain game state and targeting rules for one tower; Tower subclasses only draw it. Only the thread running
+// the simulation changes the stats, through GameSimulation.upgradeTower and sellTower; they are volatile so the
+// event thread's shop and tower menu read them current.
+abstract class TowerModel {
+	protected volatile int power;
+	protected volatile int range;
+	protected volatile int price, upgradePrice;
+	protected volatile int level;
+	protected volatile int cd;
+	protected int xPos, yPos;
+	protected volatile boolean sold, stopped;
+
+	TowerModel(int x, int y) {
+		this.xPos = x + 40;
+		this.yPos = y + 40;
+		this.level = 1;
+	}
+
+	abstract void update(GameSimulation sim, long deltaTime);
+
+	abstract void upgrade();
+
+	// Cooldowns and in-flight shots, so a snapshot resumes exactly where it was taken
+	abstract void writeTimers(ByteBuffer out, MonsterStore monsters);
+
+	abstract void readTimers(ByteBuffer in, MonsterStore monsters);
+
+	// Bytes written by writeTimers
+	static final int TIMER_BYTES = 32;
+
+	void sell() {
+		sold = true;
+	}
+
+	void stop() {
+		stopped = true;
+	}
+
+	boolean isActive() {
+		return !sold && !stopped;
+	}
+
+	int getLevel() {
+		return level;
+	}
+}
+
+class TBottleModel extends TowerModel {
+	// The hit lands a little after the shot, as the bullet reaches the target
+	static final int HIT_DELAY = 100;
+	private boolean ready;
+	private long sinceShot;
+	// Slot of the monster the shot in flight will hit, and which monster held that slot when it was fired
+	private int pendingTarget = -1;
+	private int pendingGeneration;
+	private long pendingHitDelay;
+	private double aim;
+	private int shots;
+	private int shotDeltaX, shotDeltaY;
+
+	TBottleModel(int x, int y) {
+		super(x, y);
+		this.power = 20;
+		this.price = 100;
+		this.upgradePrice = 180;
+		this.range = 200;
+		this.cd = 300;
+		this.ready = true;
+		this.aim = -90;
+	}
+
+	void upgrade() {
+		level++;
+		power += 10;
+		cd -= 50;
+		price += 80;
+		upgradePrice += 80;
+		range += 80;
+	}
+
+	void update(GameSimulation sim, long deltaTime) {
+		sinceShot += deltaTime;
+		if(sinceShot > this.cd) {
+			sinceShot = 0;
+			this.ready = true;
+		}
+		MonsterStore monsters = sim.getMonsterStore();
+		if(pendingTarget != -1) {
+			pendingHitDelay -= deltaTime;
+			if(pendingHitDelay <= 0) {
+				sim.hit(pendingTarget, pendingGeneration, this.power);
+				pendingTarget = -1;
+			}
+		}
+		int[] candidates = sim.getCandidateBuffer();
+		int target = -1;
+		int range = this.range;
+		int found = sim.getGrid().query(this.xPos, this.yPos, range, candidates);
+		for(int k = 0; k < found; k++) {
+			int i = candidates[k];
+			if(!monsters.isOnField(i)) continue;
+			// Aim at the monster furthest along the route
+			if(target != -1 && monsters.distances[i] <= monsters.distances[target]) continue;
+			int dx = monsters.xs[i] + 50 - this.xPos;
+			int dy = monsters.ys[i] + 55 - this.yPos;
+			if(dx * dx + dy * dy <= range * range) target = i;
+		}
+		if(target == -1) return;
+		int deltaY = monsters.ys[target] + 55 - this.yPos;
+		int deltaX = monsters.xs[target] + 50 - this.xPos;
+		double orient = Math.toDegrees(Math.atan((double)deltaY / deltaX));
+		if(deltaX < 0) orient += 180;
+		if(deltaX == 0 && deltaY > 0) orient = 90;
+		else if(deltaX == 0 && deltaY < 0) orient = -90;
+		else if(deltaY == 0 && deltaX > 0) orient = 0;
+		else if(deltaY == 0 && deltaX < 0) orient = 180;
+		aim = orient;
+		if(this.ready && pendingTarget == -1) {
+			this.ready = false;
+			shots++;
+			shotDeltaX = deltaX;
+			shotDeltaY = deltaY;
+			pendingTarget = target;
+			pendingGeneration = monsters.generations[target];
+			pendingHitDelay = HIT_DELAY;
+		}
+	}
+
+	void writeTimers(ByteBuffer out, MonsterStore monsters) {
+		out.put((byte)(ready ? 1 : 0)).putLong(sinceShot).putInt(pendingTarget).putLong(pendingHitDelay).putDouble(aim);
+	}
+
+	void readTimers(ByteBuffer in, MonsterStore monsters) {
+		ready = in.get() != 0;
+		sinceShot = in.getLong();
+		int target = in.getInt();
+		pendingTarget = target >= 0 && target < monsters.capacity() ? target : -1;
+		if(pendingTarget != -1) pendingGeneration = monsters.generations[pendingTarget];
+		pendingHitDelay = in.getLong();
+		aim = in.getDouble();
+	}
+
+	double getAim() {
+		return aim;
+	}
+
+	// Increments on every shot, so a view can tell when to launch a bullet
+	int getShots() {
+		return shots;
+	}
+
+	int getShotDeltaX() {
+		return shotDeltaX;
+	}
+
+	int getShotDeltaY() {
+		return shotDeltaY;
+	}
+}
+
+class TSunFlowerModel extends TowerModel {
+	private boolean attacking;
+	private long attackTime;
+	private int flameFrame;
+	private int attacks;
+
+	TSunFlowerModel(int x, int y) {
+		super(x, y);
+		this.power = 20;
+		this.price = 180;
+		this.upgradePrice = 260;
+		this.range = 150;
+		this.cd = 1000;
+		this.flameFrame = 3;
+	}
+
+	void upgrade() {
+		level++;
+		power += 15;
+		cd -= 100;
+		switch(level) {
+		case 2:
+			price = 260;
+			upgradePrice = 320;
+			break;
+		case 3:
+			price = 320;
+			break;
+		}
+		range = 200;
+	}
+
+	void update(GameSimulation sim, long deltaTime) {
+		if(!attacking) {
+			MonsterStore monsters = sim.getMonsterStore();
+			int[] candidates = sim.getCandidateBuffer();
+			int range = this.range, power = this.power;
+			int found = sim.getGrid().query(this.xPos, this.yPos, range, candidates);
+			for(int k = 0; k < found; k++) {
+				int i = candidates[k];
+				if(!monsters.isOnField(i)) continue;
+				int dx = monsters.xs[i] + 50 - this.xPos;
+				int dy = monsters.ys[i] + 50 - this.yPos;
+				if(dx * dx + dy * dy <= range * range){
+					sim.hit(i, monsters.generations[i], power);
+					this.attacking = true;
+				}
+			}
+			if(attacking) {
+				attacks++;
+				attackTime = 0;
+				flameFrame = 0;
+			}
+			return;
+		}
+		// Flame frames take 1/12, 1/12 and 2/12 of the cooldown, then the flower rests for the remaining 8/12
+		attackTime += deltaTime;
+		if(attackTime >= this.cd) {
+			this.attacking = false;
+		}else if(attackTime >= this.cd * 4 / 12) {
+			flameFrame = 3;
+		}else {
+			flameFrame = attackTime >= this.cd * 2 / 12 ? 2 : attackTime >= this.cd / 12 ? 1 : 0;
+		}
+	}
+
+	void writeTimers(ByteBuffer out, MonsterStore monsters) {
+		out.put((byte)(attacking ? 1 : 0)).putLong(attackTime).put((byte)flameFrame);
+	}
+
+	void readTimers(ByteBuffer in, MonsterStore monsters) {
+		attacking = in.get() != 0;
+		attackTime = in.getLong();
+		flameFrame = in.get();
+	}
+
+	// 0-2 while a flame is showing, 3 when it is not
+	int getFlameFrame() {
+		return flameFrame;
+	}
+
+	int getAttacks() {
+		return attacks;
+	}
+}